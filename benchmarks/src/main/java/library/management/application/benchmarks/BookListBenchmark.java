@@ -0,0 +1,60 @@
+package library.management.application.benchmarks;
+
+import library.management.application.dto.BookListItem;
+import library.management.application.utils.KeysetPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The catalog list: offset pagination, as /books?page= does it, against the keyset cursor used by
+ * the list page, both at the same depth.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookListBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "50"})
+    public int page;
+
+    @Param({"false", "true"})
+    public boolean sortByYear;
+
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void findCursor(LibraryState library) {
+        KeysetPage<BookListItem> current = library.booksService.findBooksPage(null, PAGE_SIZE, sortByYear);
+        for (int i = 0; i < page && current.hasNext(); i++) {
+            cursor = current.getNextCursor();
+            current = library.booksService.findBooksPage(cursor, PAGE_SIZE, sortByYear);
+        }
+    }
+
+    @Benchmark
+    public Page<BookListItem> offsetPage(LibraryState library) {
+        return library.booksService.findAllBooksSortedByYearWithPagination(page, PAGE_SIZE, sortByYear);
+    }
+
+    @Benchmark
+    public KeysetPage<BookListItem> keysetPage(LibraryState library) {
+        return library.booksService.findBooksPage(cursor, PAGE_SIZE, sortByYear);
+    }
+}
@@ -0,0 +1,79 @@
+package library.management.application.benchmarks;
+
+import library.management.application.dto.BookSearchCriteria;
+import library.management.application.dto.BookSearchRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Both search paths: the advanced form, one criteria combination per {@code fields} value, and the
+ * quick search box backed by the in-memory index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookSearchBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @State(Scope.Benchmark)
+    public static class Criteria {
+        @Param({"title", "author", "year", "available", "title+author", "author+year+available"})
+        public String fields;
+
+        BookSearchCriteria criteria;
+
+        @Setup(Level.Trial)
+        public void build() {
+            criteria = new BookSearchCriteria();
+            for (String field : fields.split("\\+")) {
+                switch (field) {
+                    case "title":
+                        criteria.setTitle("Kobzar");
+                        break;
+                    case "author":
+                        criteria.setAuthor("Shevchenko");
+                        break;
+                    case "year":
+                        criteria.setYear(1984);
+                        break;
+                    case "available":
+                        criteria.setAvailable(true);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(field);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Query {
+        @Param({"kobzar", "shevchenko", "lesia zabutykh"})
+        public String text;
+    }
+
+    @Benchmark
+    public Page<BookSearchRow> criteriaSearch(LibraryState library, Criteria criteria) {
+        return library.booksService.searchRows(criteria.criteria, 0, PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public Page<BookSearchRow> quickSearch(LibraryState library, Query query) {
+        return library.booksService.searchBooks(query.text, 0, PAGE_SIZE);
+    }
+}
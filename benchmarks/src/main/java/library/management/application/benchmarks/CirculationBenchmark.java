@@ -0,0 +1,68 @@
+package library.management.application.benchmarks;
+
+import library.management.application.dto.BatchResult;
+import library.management.application.models.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout and return, one book at a time as on the book page and ten at a time as at the desk.
+ * Every invocation lends books and gives them back, so the data stays the same between iterations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CirculationBenchmark {
+    private static final int BATCH_SIZE = 10;
+
+    private Person reader;
+    private int bookId;
+    private List<Integer> bookIds;
+
+    @Setup(Level.Invocation)
+    public void pickBooks(LibraryState library) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        reader = new Person();
+        reader.setPersonId(1 + random.nextInt(library.readers));
+        bookId = 1 + random.nextInt(library.books);
+        bookIds = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++)
+            bookIds.add(1 + random.nextInt(library.books));
+    }
+
+    @Benchmark
+    public BatchResult.Outcome checkoutAndRelease(LibraryState library) {
+        BatchResult.Outcome outcome = library.booksService.assignBookToPerson(bookId, reader);
+        if (outcome == BatchResult.Outcome.DONE)
+            library.booksService.releaseBook(bookId);
+        return outcome;
+    }
+
+    @Benchmark
+    public BatchResult batchCheckoutAndRelease(LibraryState library) {
+        BatchResult assigned = library.booksService.assignBooks(bookIds, reader.getPersonId());
+        List<Integer> taken = new ArrayList<>();
+        for (BatchResult.Item item : assigned.getItems()) {
+            if (item.isDone())
+                taken.add(item.getBookId());
+        }
+        return library.booksService.releaseBooks(taken);
+    }
+}
@@ -0,0 +1,44 @@
+package library.management.application.benchmarks;
+
+import library.management.application.config.SpringMvcDispatcherServletInitializer;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.springframework.web.SpringServletContainerInitializer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Set;
+
+/**
+ * The application in an embedded Tomcat, started through the same initializer the WAR uses.
+ * Templates are served from {@code webapp}, normally src/main/webapp of the application.
+ */
+public class EmbeddedLibrary implements AutoCloseable {
+    private final Tomcat tomcat = new Tomcat();
+
+    public EmbeddedLibrary(File webapp, int port) throws IOException {
+        tomcat.setBaseDir(Files.createTempDirectory("library-tomcat").toString());
+        Connector connector = new Connector();
+        connector.setPort(port);
+        tomcat.setConnector(connector);
+
+        Context context = tomcat.addContext("", webapp.getAbsolutePath());
+        context.addServletContainerInitializer(new SpringServletContainerInitializer(),
+                Set.of(SpringMvcDispatcherServletInitializer.class));
+    }
+
+    public URI start() throws LifecycleException {
+        tomcat.start();
+        return URI.create("http://localhost:" + tomcat.getConnector().getLocalPort());
+    }
+
+    @Override
+    public void close() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+}
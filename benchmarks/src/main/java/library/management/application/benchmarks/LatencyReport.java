@@ -0,0 +1,85 @@
+package library.management.application.benchmarks;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and error counts per endpoint, recorded in microseconds.
+ * Nothing is recorded until {@link #start()}, which lets the warmup run against the same report.
+ */
+public class LatencyReport {
+    private static final long HIGHEST_LATENCY_US = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+    private volatile long startedAt;
+    private volatile long stoppedAt;
+
+    public void start() {
+        startedAt = System.nanoTime();
+        recording = true;
+    }
+
+    public void stop() {
+        recording = false;
+        stoppedAt = System.nanoTime();
+    }
+
+    public void record(String endpoint, long startNanos, boolean success) {
+        if (!recording)
+            return;
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos), HIGHEST_LATENCY_US);
+        histograms.computeIfAbsent(endpoint, e -> new ConcurrentHistogram(HIGHEST_LATENCY_US, 3))
+                .recordValue(micros);
+        if (!success)
+            errors.computeIfAbsent(endpoint, e -> new LongAdder()).increment();
+    }
+
+    public long errorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public void print(PrintStream out) {
+        printHeader(out, "endpoint");
+        histograms.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    LongAdder failed = errors.get(entry.getKey());
+                    printRow(out, entry.getKey(), entry.getValue(), failed == null ? 0 : failed.sum());
+                });
+    }
+
+    /**
+     * One row for all endpoints together.
+     */
+    public void printTotal(PrintStream out, String label) {
+        Histogram total = new Histogram(HIGHEST_LATENCY_US, 3);
+        histograms.values().forEach(total::add);
+        printRow(out, label, total, errorCount());
+    }
+
+    public static void printHeader(PrintStream out, String label) {
+        out.printf("%-28s %9s %9s %7s %9s %9s %9s %9s%n",
+                label, "requests", "req/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+    }
+
+    private void printRow(PrintStream out, String label, Histogram histogram, long failed) {
+        double seconds = (stoppedAt - startedAt) / 1e9;
+        out.printf("%-28s %9d %9.1f %7d %9.2f %9.2f %9.2f %9.2f%n",
+                label,
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds,
+                failed,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+}
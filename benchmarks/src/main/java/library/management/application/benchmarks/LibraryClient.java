@@ -0,0 +1,145 @@
+package library.management.application.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One simulated librarian. Forms are sent the way the browser sends them, as POST with a
+ * {@code _method} field, and redirects are followed by hand so that each page counts once.
+ * Clients share one HttpClient and its connections, but every client keeps its own session
+ * cookie, the session carries the flash messages.
+ */
+public class LibraryClient {
+    private static final String ALREADY_TAKEN_MARKER = "id=\"checkout-error\"";
+
+    private static final Pattern NEXT_CURSOR = Pattern.compile("cursor=([^&\"]+)[^\"]*\">Наступна");
+    private static final int MAX_BROWSE_DEPTH = 5;
+
+    private final HttpClient http;
+    private final URI base;
+    private final LatencyReport report;
+    private String sessionCookie;
+
+    public LibraryClient(HttpClient http, URI base, LatencyReport report) {
+        this.http = http;
+        this.base = base;
+        this.report = report;
+    }
+
+    public static HttpClient newHttpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /**
+     * The book list, then a few of the following pages through the "next" link.
+     */
+    public void browse(Random random) throws IOException, InterruptedException {
+        String sort = random.nextBoolean() ? "&sort_by_year=true" : "";
+        String body = get("GET /books", "/books?size=20" + sort);
+        int depth = random.nextInt(MAX_BROWSE_DEPTH);
+        for (int i = 0; i < depth && body != null; i++) {
+            Matcher next = NEXT_CURSOR.matcher(body);
+            if (!next.find())
+                break;
+            body = get("GET /books", "/books?size=20&cursor=" + next.group(1) + sort);
+        }
+    }
+
+    /**
+     * Half quick searches, half advanced searches with one to three fields.
+     */
+    public void search(Random random) throws IOException, InterruptedException {
+        if (random.nextBoolean()) {
+            String query = pick(random, LibrarySeeder.TITLE_WORDS);
+            if (random.nextBoolean())
+                query += " " + pick(random, LibrarySeeder.AUTHOR_NAMES).split(" ")[1];
+            get("GET /books/search?q", "/books/search?q=" + encode(query.toLowerCase()));
+        } else {
+            StringBuilder criteria = new StringBuilder("title=").append(encode(pick(random, LibrarySeeder.TITLE_WORDS)));
+            if (random.nextBoolean())
+                criteria.append("&author=").append(encode(pick(random, LibrarySeeder.AUTHOR_NAMES).split(" ")[1]));
+            if (random.nextInt(3) == 0)
+                criteria.append("&available=true");
+            get("GET /books/search", "/books/search?" + criteria);
+        }
+    }
+
+    public void viewReader(int personId) throws IOException, InterruptedException {
+        get("GET /people/{id}", "/people/" + personId);
+    }
+
+    /**
+     * Lends the book and opens it, as the book page does after the form is sent.
+     *
+     * @return true when this client got the book, false when it was already lent
+     */
+    public boolean checkout(int bookId, int personId) throws IOException, InterruptedException {
+        if (!patch("PATCH /books/{id}/assign", "/books/" + bookId + "/assign", "personId=" + personId))
+            return false;
+        String page = get("GET /books/{id}", "/books/" + bookId);
+        return page != null && !page.contains(ALREADY_TAKEN_MARKER);
+    }
+
+    public void release(int bookId) throws IOException, InterruptedException {
+        patch("PATCH /books/{id}/release", "/books/" + bookId + "/release", "");
+    }
+
+    private String get(String endpoint, String path) throws IOException, InterruptedException {
+        HttpRequest request = request(path).GET().build();
+        long start = System.nanoTime();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        keepSession(response);
+        boolean success = response.statusCode() == 200;
+        report.record(endpoint, start, success);
+        return success ? response.body() : null;
+    }
+
+    private boolean patch(String endpoint, String path, String form) throws IOException, InterruptedException {
+        HttpRequest request = request(path)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form.isEmpty() ? "_method=patch" : "_method=patch&" + form))
+                .build();
+        long start = System.nanoTime();
+        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+        keepSession(response);
+        boolean success = response.statusCode() == 302;
+        report.record(endpoint, start, success);
+        return success;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(base.resolve(path));
+        if (sessionCookie != null)
+            builder.header("Cookie", sessionCookie);
+        return builder;
+    }
+
+    private void keepSession(HttpResponse<?> response) {
+        response.headers().allValues("Set-Cookie").stream()
+                .filter(cookie -> cookie.startsWith("JSESSIONID="))
+                .findFirst()
+                .map(cookie -> cookie.split(";", 2)[0])
+                .ifPresent(cookie -> sessionCookie = cookie);
+    }
+
+    private static String pick(Random random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
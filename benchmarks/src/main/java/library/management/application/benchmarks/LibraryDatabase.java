@@ -0,0 +1,49 @@
+package library.management.application.benchmarks;
+
+import org.flywaydb.core.Flyway;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Brings a database to the current schema and seeds it when the catalog is empty, so a local
+ * PostgreSQL keeps its data between runs while in-memory H2 is filled every time.
+ */
+public final class LibraryDatabase {
+    private LibraryDatabase() {
+    }
+
+    public static void prepare(String url, String user, String password, int books) throws SQLException {
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .locations("classpath:db/migration/" + (url.startsWith("jdbc:h2:") ? "h2" : "postgresql"))
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            if (count(connection, "book") == 0)
+                new LibrarySeeder().seed(connection, books);
+        }
+    }
+
+    public static int[] idRange(Connection connection, String table, String idColumn) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select min(" + idColumn + "), max(" + idColumn + ") from " + table)) {
+            rs.next();
+            return new int[]{rs.getInt(1), rs.getInt(2)};
+        }
+    }
+
+    private static long count(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select count(*) from " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
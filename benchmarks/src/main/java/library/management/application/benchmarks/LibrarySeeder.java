@@ -0,0 +1,103 @@
+package library.management.application.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills an empty library with a synthetic catalog: one reader per ten books, titles and authors
+ * drawn from word lists with a skewed distribution, about a third of the books lent and a tenth
+ * of the loans overdue. The same seed always produces the same data.
+ */
+public class LibrarySeeder {
+    private static final int BATCH_SIZE = 5000;
+    private static final long DAY_MS = TimeUnit.DAYS.toMillis(1);
+
+    static final String[] TITLE_WORDS = {
+            "Kobzar", "Zakhar", "Berkut", "Tini", "Zabutykh", "Predkiv", "Misto", "Sad", "Hetsymanskyi",
+            "Zhovtyi", "Kniaz", "Marusia", "Churai", "Lisova", "Pisnia", "Intermezzo", "Kaidasheva", "Simia",
+            "Tyhrolovy", "Zachareovana", "Desna", "Voroshylovhrad", "Felix", "Austria", "Rekreatsii",
+            "Dzhalapita", "Moskoviada", "Perverziia", "Solodka", "Darusia", "Chorna", "Rada", "Kaminnyi",
+            "Khrest", "Valse", "Melankholiinyi", "Istoria", "Ukrainy", "Ruslana", "Tyhyi", "Don"
+    };
+    static final String[] AUTHOR_NAMES = {
+            "Taras Shevchenko", "Lesia Ukrainka", "Ivan Franko", "Mykhailo Kotsiubynskyi", "Olha Kobylianska",
+            "Ivan Nechui-Levytskyi", "Panteleimon Kulish", "Lina Kostenko", "Vasyl Stus", "Serhii Zhadan",
+            "Yurii Andrukhovych", "Oksana Zabuzhko", "Maria Matios", "Valerian Pidmohylnyi", "Mykola Khvylovyi",
+            "Ivan Bahrianyi", "Pavlo Zahrebelnyi", "Oles Honchar", "Hryhir Tiutiunnyk", "Volodymyr Vynnychenko"
+    };
+    private static final String[] FIRST_NAMES = {
+            "Olena", "Andrii", "Iryna", "Mykola", "Oksana", "Taras", "Natalia", "Dmytro", "Sofiia", "Bohdan",
+            "Kateryna", "Yurii", "Halyna", "Petro", "Mariia", "Serhii", "Anastasiia", "Oleh", "Yulia", "Vasyl"
+    };
+    private static final String[] LAST_NAMES = {
+            "Kovalenko", "Bondarenko", "Tkachenko", "Kravchenko", "Shevchuk", "Melnyk", "Boiko", "Kovalchuk",
+            "Oliinyk", "Lysenko", "Marchenko", "Rudenko", "Savchenko", "Petrenko", "Moroz", "Pavlenko"
+    };
+
+    private final Random random = new Random(42);
+
+    public void seed(Connection connection, int books) throws SQLException {
+        int readers = Math.max(1, books / 10);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            insertReaders(connection, readers);
+            insertBooks(connection, books, readers);
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void insertReaders(Connection connection, int readers) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into person (full_name, year_of_birth) values (?, ?)")) {
+            for (int i = 1; i <= readers; i++) {
+                // the sequence number keeps names unique, the unique constraint on full_name is enforced
+                insert.setString(1, pick(FIRST_NAMES) + " " + pick(LAST_NAMES) + " " + i);
+                insert.setInt(2, 1943 + random.nextInt(2016 - 1943 + 1));
+                insert.addBatch();
+                if (i % BATCH_SIZE == 0)
+                    insert.executeBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private void insertBooks(Connection connection, int books, int readers) throws SQLException {
+        long now = System.currentTimeMillis();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into book (title, author, year_of_production, person_id, taken_at) values (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= books; i++) {
+                insert.setString(1, pick(TITLE_WORDS) + " " + pick(TITLE_WORDS) + (random.nextInt(4) == 0 ? " " + i : ""));
+                insert.setString(2, pick(AUTHOR_NAMES));
+                insert.setInt(3, 1950 + random.nextInt(2024 - 1950 + 1));
+                if (random.nextInt(3) == 0) {
+                    // readers with low ids borrow more, a few keep books for months
+                    insert.setInt(4, 1 + (int) (readers * Math.pow(random.nextDouble(), 2)));
+                    int days = random.nextInt(10) == 0 ? 15 + random.nextInt(120) : random.nextInt(14);
+                    insert.setTimestamp(5, new Timestamp(now - days * DAY_MS));
+                } else {
+                    insert.setNull(4, java.sql.Types.INTEGER);
+                    insert.setNull(5, java.sql.Types.TIMESTAMP);
+                }
+                insert.addBatch();
+                if (i % BATCH_SIZE == 0)
+                    insert.executeBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Squared uniform index: the first words are much more frequent than the last ones,
+     * as in a real catalog.
+     */
+    private String pick(String[] words) {
+        return words[(int) (words.length * Math.pow(random.nextDouble(), 2))];
+    }
+}
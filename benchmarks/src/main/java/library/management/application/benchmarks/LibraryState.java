@@ -0,0 +1,59 @@
+package library.management.application.benchmarks;
+
+import library.management.application.config.SpringConfig;
+import library.management.application.services.BooksService;
+import library.management.application.services.PeopleService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+
+/**
+ * Seeds an in-memory H2 database with {@code books} books (run with e.g. {@code -p books=1000000})
+ * and starts the application context against it, the same configuration the WAR uses.
+ */
+@State(Scope.Benchmark)
+public class LibraryState {
+    @Param({"10000"})
+    public int books;
+
+    public int readers;
+    public BooksService booksService;
+    public PeopleService peopleService;
+
+    private AnnotationConfigWebApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        String url = "jdbc:h2:mem:library-" + books + ";DB_CLOSE_DELAY=-1";
+        readers = Math.max(1, books / 10);
+
+        LibraryDatabase.prepare(url, "sa", "", books);
+
+        // system properties take precedence over hibernate.properties
+        System.setProperty("hibernate.connection.url", url);
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(SpringConfig.class);
+        context.refresh();
+
+        booksService = context.getBean(BooksService.class);
+        peopleService = context.getBean(PeopleService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        context.close();
+        try (Connection connection = DriverManager.getConnection(
+                System.getProperty("hibernate.connection.url"), "sa", "")) {
+            connection.createStatement().execute("shutdown");
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package library.management.application.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end load test: seeds the database, starts the application in an embedded Tomcat and runs
+ * a closed-loop mix of browsing, searching, reader pages and checkouts from {@code load.clients}
+ * concurrent librarians. A checkout race follows: many librarians lend the same free book at once
+ * and exactly one of them must get it. The exit status is 1 if any request failed or a book was
+ * lent twice.
+ *
+ * <p>{@code load.clients} may list several values ({@code 8,32,128,512}) and {@code load.modes} may be
+ * {@code platform,virtual}: the mix then runs at every concurrency in every request execution mode,
+ * restarting the application between modes, and a summary compares them.
+ *
+ * <p>Settings are system properties: load.books, load.clients, load.modes, load.warmup_seconds,
+ * load.duration_seconds, load.mix (e.g. {@code browse=40,search=25,reader=20,circulation=15}),
+ * load.race_books, load.race_clients, load.seed, load.port and load.webapp. With several modes each
+ * one runs in its own JVM. The database defaults
+ * to in-memory H2; pass hibernate.connection.url, hibernate.driver_class, hibernate.dialect and the
+ * credentials to run against a local PostgreSQL.
+ */
+public class LoadTest {
+    private static final Pattern FORWARDED_PROPERTIES = Pattern.compile("load\\.|hibernate\\.|library\\.|pool\\.");
+
+    private final List<Integer> clientCounts = parseList(System.getProperty("load.clients", "16"), Integer::valueOf);
+    private final List<String> modes = parseList(System.getProperty("load.modes",
+            Boolean.getBoolean("library.virtual_threads.enabled") ? "virtual" : "platform"), String::valueOf);
+    private final int warmupSeconds = Integer.getInteger("load.warmup_seconds", 10);
+    private final int durationSeconds = Integer.getInteger("load.duration_seconds", 60);
+    private final int raceBooks = Integer.getInteger("load.race_books", 20);
+    private final int raceClients = Integer.getInteger("load.race_clients", 16);
+    private final long seed = Long.getLong("load.seed", 1);
+
+    private final Map<String, Integer> mix = parseMix(
+            System.getProperty("load.mix", "browse=40,search=25,reader=20,circulation=15"));
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final HttpClient http = LibraryClient.newHttpClient();
+    private final Map<String, LatencyReport> sweep = new LinkedHashMap<>();
+    private int[] bookIds;
+    private int[] personIds;
+
+    public LoadTest(String url, String user, String password) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+    }
+
+    public static void main(String[] args) throws Exception {
+        // system properties take precedence over hibernate.properties, the application reads the same ones
+        String url = System.getProperty("hibernate.connection.url", "jdbc:h2:mem:load;DB_CLOSE_DELAY=-1");
+        String user = System.getProperty("hibernate.connection.username", "sa");
+        String password = System.getProperty("hibernate.connection.password", "");
+        System.setProperty("hibernate.connection.url", url);
+
+        LibraryDatabase.prepare(url, user, password, Integer.getInteger("load.books", 100_000));
+
+        LoadTest test = new LoadTest(url, user, password);
+        if (test.modes.size() > 1) {
+            System.exit(test.runModesInSeparateJvms() ? 0 : 1);
+        }
+
+        String mode = test.modes.get(0);
+        System.setProperty("library.virtual_threads.enabled", String.valueOf(mode.equals("virtual")));
+        File webapp = new File(System.getProperty("load.webapp", "../src/main/webapp"));
+        boolean passed;
+        try (EmbeddedLibrary library = new EmbeddedLibrary(webapp, Integer.getInteger("load.port", 0))) {
+            passed = test.run(library.start(), mode);
+        }
+        test.printSweep();
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Spring and Thymeleaf keep static caches tied to the web application class loader, so a second
+     * application in the same JVM would trip over the first one's; every mode gets a fresh JVM instead.
+     * The children append their summary rows to a shared file.
+     */
+    private boolean runModesInSeparateJvms() throws Exception {
+        Path sweepFile = Files.createTempFile("load-sweep-", ".txt");
+        boolean passed = true;
+        for (String mode : modes) {
+            List<String> command = new ArrayList<>();
+            command.add(ProcessHandle.current().info().command().orElse("java"));
+            System.getProperties().stringPropertyNames().stream()
+                    .filter(name -> FORWARDED_PROPERTIES.matcher(name).lookingAt())
+                    .filter(name -> !name.equals("load.modes"))
+                    .forEach(name -> command.add("-D" + name + "=" + System.getProperty(name)));
+            command.add("-Dload.modes=" + mode);
+            command.add("-Dload.sweep_file=" + sweepFile);
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(LoadTest.class.getName());
+            passed &= new ProcessBuilder(command).inheritIO().start().waitFor() == 0;
+        }
+
+        System.out.printf("%nAll endpoints by request execution mode and concurrency%n");
+        LatencyReport.printHeader(System.out, "mode x clients");
+        Files.readAllLines(sweepFile).forEach(System.out::println);
+        Files.delete(sweepFile);
+        return passed;
+    }
+
+    public boolean run(URI base, String mode) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            bookIds = LibraryDatabase.idRange(connection, "book", "book_id");
+            personIds = LibraryDatabase.idRange(connection, "person", "person_id");
+        }
+
+        boolean passed = true;
+        for (int clients : clientCounts) {
+            LatencyReport report = new LatencyReport();
+            System.out.printf("%nMixed workload, %s threads: %d clients, %ds warmup, %ds measured, mix %s%n",
+                    mode, clients, warmupSeconds, durationSeconds, mix);
+            runMixed(base, report, clients);
+            report.print(System.out);
+            sweep.put(mode + " x" + clients, report);
+            passed &= report.errorCount() == 0;
+        }
+
+        LatencyReport raceReport = new LatencyReport();
+        System.out.printf("%nCheckout race: %d books, %d librarians per book%n", raceBooks, raceClients);
+        int doubleLoans = runCheckoutRace(base, raceReport);
+        raceReport.print(System.out);
+        System.out.printf("Books lent to more than one librarian or to the wrong reader: %d%n", doubleLoans);
+
+        return passed && raceReport.errorCount() == 0 && doubleLoans == 0;
+    }
+
+    private void printSweep() throws IOException {
+        String sweepFile = System.getProperty("load.sweep_file");
+        if (sweepFile != null) {
+            try (PrintStream out = new PrintStream(new FileOutputStream(sweepFile, true), true)) {
+                sweep.forEach((label, report) -> report.printTotal(out, label));
+            }
+        } else if (sweep.size() > 1) {
+            System.out.printf("%nAll endpoints by concurrency%n");
+            LatencyReport.printHeader(System.out, "mode x clients");
+            sweep.forEach((label, report) -> report.printTotal(System.out, label));
+        }
+    }
+
+    private void runMixed(URI base, LatencyReport report, int clients) throws Exception {
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(durationSeconds);
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Random random = new Random(seed + i);
+            running.add(executor.submit(() -> {
+                LibraryClient client = new LibraryClient(http, base, report);
+                while (System.nanoTime() < end) {
+                    execute(client, random, pickOperation(random.nextInt(totalWeight)));
+                }
+                return null;
+            }));
+        }
+
+        TimeUnit.NANOSECONDS.sleep(warmupEnd - System.nanoTime());
+        report.start();
+        for (Future<?> client : running)
+            client.get();
+        report.stop();
+        executor.shutdown();
+    }
+
+    private void execute(LibraryClient client, Random random, String operation) throws Exception {
+        switch (operation) {
+            case "browse":
+                client.browse(random);
+                break;
+            case "search":
+                client.search(random);
+                break;
+            case "reader":
+                client.viewReader(randomId(random, personIds));
+                break;
+            case "circulation":
+                // returning only what this client lent keeps the share of lent books stable
+                int bookId = randomId(random, bookIds);
+                if (client.checkout(bookId, randomId(random, personIds)))
+                    client.release(bookId);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private String pickOperation(int roll) {
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0)
+                return entry.getKey();
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * Every librarian tries to lend the same free book to a different reader at the same moment.
+     *
+     * @return the number of books that did not end up with exactly one winner holding them
+     */
+    private int runCheckoutRace(URI base, LatencyReport report) throws Exception {
+        List<Integer> freeBooks = findFreeBooks(raceBooks);
+        Random random = new Random(seed);
+        ExecutorService executor = Executors.newFixedThreadPool(raceClients);
+        int violations = 0;
+        report.start();
+
+        for (int bookId : freeBooks) {
+            CountDownLatch ready = new CountDownLatch(1);
+            List<Integer> readers = new ArrayList<>();
+            List<Future<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < raceClients; i++) {
+                int personId = randomId(random, personIds);
+                LibraryClient client = new LibraryClient(http, base, report);
+                readers.add(personId);
+                attempts.add(executor.submit(() -> {
+                    ready.await();
+                    return client.checkout(bookId, personId);
+                }));
+            }
+            ready.countDown();
+
+            List<Integer> winners = new ArrayList<>();
+            for (int i = 0; i < attempts.size(); i++) {
+                if (attempts.get(i).get())
+                    winners.add(readers.get(i));
+            }
+            Integer holder = findHolder(bookId);
+            if (winners.size() != 1 || !winners.get(0).equals(holder)) {
+                violations++;
+                System.out.printf("Book %d: holder %s, librarians told they lent it to %s%n", bookId, holder, winners);
+            }
+            new LibraryClient(http, base, report).release(bookId);
+        }
+
+        report.stop();
+        executor.shutdown();
+        return violations;
+    }
+
+    private List<Integer> findFreeBooks(int count) throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             PreparedStatement select = connection.prepareStatement(
+                     "select book_id from book where person_id is null order by book_id limit ?")) {
+            select.setInt(1, count);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next())
+                    ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    private Integer findHolder(int bookId) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             PreparedStatement select = connection.prepareStatement("select person_id from book where book_id = ?")) {
+            select.setInt(1, bookId);
+            try (ResultSet rs = select.executeQuery()) {
+                rs.next();
+                return (Integer) rs.getObject(1);
+            }
+        }
+    }
+
+    private static int randomId(Random random, int[] range) {
+        return range[0] + random.nextInt(range[1] - range[0] + 1);
+    }
+
+    private static <T> List<T> parseList(String value, Function<String, T> parser) {
+        List<T> values = new ArrayList<>();
+        for (String item : value.split(","))
+            values.add(parser.apply(item.trim()));
+        return values;
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=");
+            mix.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return mix;
+    }
+}
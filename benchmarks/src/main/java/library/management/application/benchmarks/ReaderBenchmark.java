@@ -0,0 +1,35 @@
+package library.management.application.benchmarks;
+
+import library.management.application.models.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The books of a reader, as loaded by /people/{id}. Readers with low ids hold the most books,
+ * so the ids are drawn uniformly to cover both ends.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReaderBenchmark {
+
+    @Benchmark
+    public List<Book> findBooksByPersonId(LibraryState library) {
+        int personId = 1 + ThreadLocalRandom.current().nextInt(library.readers);
+        return library.peopleService.findBooksByPersonId(personId);
+    }
+}
@@ -0,0 +1,51 @@
+package library.management.application.caching;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import java.util.Map;
+
+/**
+ * Answers conditional GETs of catalog pages from {@link CatalogVersion} alone: when the browser already
+ * has the current version the response is 304 before the controller runs, without a single query.
+ * Pages that mark overdue loans also depend on the clock, so for them the tag changes every
+ * {@code clockWindowMillis} as well. A page carrying a flash message is always rendered.
+ */
+public class CatalogConditionalGetInterceptor implements HandlerInterceptor {
+    private static final String CACHE_CONTROL = CacheControl.noCache().getHeaderValue();
+
+    private final CatalogVersion catalogVersion;
+    private final long clockWindowMillis;
+
+    public CatalogConditionalGetInterceptor(CatalogVersion catalogVersion, long clockWindowMillis) {
+        this.catalogVersion = catalogVersion;
+        this.clockWindowMillis = clockWindowMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod()))
+            return true;
+        Map<String, ?> flashMap = RequestContextUtils.getInputFlashMap(request);
+        if (flashMap != null && !flashMap.isEmpty())
+            return true;
+
+        String etag = "W/\"" + Long.toString(catalogVersion.get(), 36);
+        long lastModified = catalogVersion.getLastModified();
+        if (clockWindowMillis > 0) {
+            long window = System.currentTimeMillis() / clockWindowMillis;
+            etag += "-" + Long.toString(window, 36);
+            lastModified = Math.max(lastModified, window * clockWindowMillis);
+        }
+        etag += "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        return !new ServletWebRequest(request, response).checkNotModified(etag, lastModified);
+    }
+}
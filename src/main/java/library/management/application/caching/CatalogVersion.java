@@ -0,0 +1,44 @@
+package library.management.application.caching;
+
+import library.management.application.events.BooksImportedEvent;
+import library.management.application.events.CatalogChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A counter bumped after every committed change to books, readers or loans. It only moves after commit,
+ * so a page rendered under a given version never shows data older than that version.
+ * The counter starts from the boot time, so versions do not repeat across restarts; it only sees
+ * changes made through this instance.
+ */
+@Component
+public class CatalogVersion {
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private volatile long lastModified = System.currentTimeMillis();
+
+    public long get() {
+        return version.get();
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    @TransactionalEventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        changed();
+    }
+
+    @EventListener
+    public void onBooksImported(BooksImportedEvent event) {
+        changed();
+    }
+
+    private void changed() {
+        lastModified = System.currentTimeMillis();
+        version.incrementAndGet();
+    }
+}
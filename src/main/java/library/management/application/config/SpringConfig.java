@@ -1,31 +1,59 @@
 package library.management.application.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import library.management.application.caching.CatalogConditionalGetInterceptor;
+import library.management.application.caching.CatalogVersion;
+import library.management.application.metrics.HibernateCacheMetrics;
+import library.management.application.metrics.RequestMetricsInterceptor;
+import library.management.application.metrics.StatementMetricsListener;
+import library.management.application.utils.DatabaseVendor;
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.http.CacheControl;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
-import org.springframework.orm.hibernate5.LocalSessionFactoryBean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewResolverRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+import org.thymeleaf.cache.StandardCacheManager;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 import org.thymeleaf.spring6.templateresolver.SpringResourceTemplateResolver;
 import org.thymeleaf.spring6.view.ThymeleafViewResolver;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @ComponentScan("library.management.application")
@@ -37,11 +65,14 @@ public class SpringConfig implements WebMvcConfigurer {
 
     private final ApplicationContext applicationContext;
     private final Environment environment;
+    private final CatalogVersion catalogVersion;
 
     @Autowired
-    public SpringConfig(ApplicationContext applicationContext, Environment environment) {
+    public SpringConfig(ApplicationContext applicationContext, Environment environment,
+                        CatalogVersion catalogVersion) {
         this.applicationContext = applicationContext;
         this.environment = environment;
+        this.catalogVersion = catalogVersion;
     }
 
     @Bean
@@ -52,6 +83,8 @@ public class SpringConfig implements WebMvcConfigurer {
         templateResolver.setSuffix(".html");
 
         templateResolver.setCharacterEncoding("UTF-8");
+        templateResolver.setCacheable(environment.getProperty("library.templates.cache", Boolean.class, true));
+        templateResolver.setCacheTTLMs(environment.getProperty("library.templates.cache_ttl_ms", Long.class, 3_600_000L));
         return templateResolver;
     }
 
@@ -60,6 +93,10 @@ public class SpringConfig implements WebMvcConfigurer {
         SpringTemplateEngine templateEngine = new SpringTemplateEngine();
         templateEngine.setTemplateResolver(templateResolver());
         templateEngine.setEnableSpringELCompiler(true);
+
+        StandardCacheManager cacheManager = new StandardCacheManager();
+        cacheManager.setTemplateCacheMaxSize(environment.getProperty("library.templates.cache_size", Integer.class, 200));
+        templateEngine.setCacheManager(cacheManager);
         return templateEngine;
     }
 
@@ -68,19 +105,125 @@ public class SpringConfig implements WebMvcConfigurer {
         ThymeleafViewResolver resolver = new ThymeleafViewResolver();
         resolver.setTemplateEngine(templateEngine());
         resolver.setCharacterEncoding("UTF-8");
+        resolver.setProducePartialOutputWhileProcessing(true);
         registry.viewResolver(resolver);
     }
 
+    @Bean
+    @Primary
+    public LocalValidatorFactoryBean validator() {
+        return new LocalValidatorFactoryBean();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (environment.getProperty("library.metrics.requests", Boolean.class, true)) {
+            registry.addInterceptor(new RequestMetricsInterceptor(meterRegistry(),
+                    environment.getProperty("library.metrics.n_plus_one_threshold", Integer.class, 10),
+                    environment.getProperty("library.logging.request_sample_rate", Double.class, 0.01),
+                    environment.getProperty("library.logging.slow_request_ms", Long.class, 500L)));
+        }
+        if (environment.getProperty("library.http.conditional_get", Boolean.class, true)) {
+            registry.addInterceptor(new CatalogConditionalGetInterceptor(catalogVersion, 0))
+                    .addPathPatterns("/books");
+            // these pages mark overdue loans, which changes with time alone
+            long overdueCheckMillis = TimeUnit.SECONDS.toMillis(
+                    environment.getProperty("library.http.overdue_check_seconds", Long.class, 60L));
+            registry.addInterceptor(new CatalogConditionalGetInterceptor(catalogVersion, overdueCheckMillis))
+                    .addPathPatterns("/books/{id:\\d+}", "/people/{id:\\d+}");
+        }
+    }
+
+    /**
+     * Static files are served under a content-hashed name (links in templates are rewritten by
+     * ResourceUrlEncodingFilter), so browsers may keep them for as long as they like.
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        long maxAgeDays = environment.getProperty("library.http.static_max_age_days", Long.class, 365L);
+        registry.addResourceHandler("/resources/**")
+                .addResourceLocations("/resources/")
+                .setCacheControl(CacheControl.maxAge(maxAgeDays, TimeUnit.DAYS).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+
+    @Override
+    public Validator getValidator() {
+        return validator();
+    }
+
+    @Bean
+    public StandardServletMultipartResolver multipartResolver() {
+        return new StandardServletMultipartResolver();
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        int threads = environment.getProperty("library.import.threads", Integer.class, 1);
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(environment.getProperty("library.import.queue_capacity", Integer.class, 10));
+        executor.setThreadNamePrefix("book-import-");
+        return executor;
+    }
+
+    @Bean
+    public PrometheusMeterRegistry meterRegistry() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                // publish buckets for the latency timers so percentiles can be computed from the scrape
+                if (id.getName().equals("hikaricp.connections.acquire")
+                        || id.getName().equals("http.server.requests")
+                        || id.getName().equals("library.transactions")) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(true)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        });
+        return registry;
+    }
+
     @Bean
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("library-pool");
+
+        config.setDriverClassName(Objects.requireNonNull(environment.getProperty("hibernate.driver_class")));
+        config.setJdbcUrl(environment.getProperty("hibernate.connection.url"));
+        config.setUsername(environment.getProperty("hibernate.connection.username"));
+        config.setPassword(environment.getProperty("hibernate.connection.password"));
+
+        config.setMaximumPoolSize(environment.getProperty("pool.maximum_size", Integer.class, 10));
+        config.setMinimumIdle(environment.getProperty("pool.minimum_idle", Integer.class, 2));
+        config.setConnectionTimeout(environment.getProperty("pool.connection_timeout_ms", Long.class, 3000L));
+        config.setIdleTimeout(environment.getProperty("pool.idle_timeout_ms", Long.class, 600000L));
+        config.setMaxLifetime(environment.getProperty("pool.max_lifetime_ms", Long.class, 1800000L));
+        config.setKeepaliveTime(environment.getProperty("pool.keepalive_time_ms", Long.class, 300000L));
+        config.setValidationTimeout(environment.getProperty("pool.validation_timeout_ms", Long.class, 1000L));
 
-        dataSource.setDriverClassName(Objects.requireNonNull(environment.getProperty("hibernate.driver_class")));
-        dataSource.setUrl(environment.getProperty("hibernate.connection.url"));
-        dataSource.setUsername(environment.getProperty("hibernate.connection.username"));
-        dataSource.setPassword(environment.getProperty("hibernate.connection.password"));
+        if (databaseVendor().isPostgresql()) {
+            // server-side prepared statements are cached per connection by the PostgreSQL driver
+            config.addDataSourceProperty("prepareThreshold",
+                    environment.getProperty("pool.prepare_threshold", "5"));
+            config.addDataSourceProperty("preparedStatementCacheQueries",
+                    environment.getProperty("pool.prepared_statement_cache_queries", "256"));
+            config.addDataSourceProperty("preparedStatementCacheSizeMiB",
+                    environment.getProperty("pool.prepared_statement_cache_size_mib", "5"));
+            // lets the driver send a JDBC insert batch as multi-row inserts
+            config.addDataSourceProperty("reWriteBatchedInserts",
+                    environment.getProperty("pool.rewrite_batched_inserts", "true"));
+        }
 
-        return dataSource;
+        config.setMetricRegistry(meterRegistry());
+
+        return new HikariDataSource(config);
     }
 
     @Bean
@@ -88,28 +231,79 @@ public class SpringConfig implements WebMvcConfigurer {
         return new JdbcTemplate(dataSource());
     }
 
+    /**
+     * Applies db/migration/{vendor} before the EntityManagerFactory is built. Databases created before
+     * migrations existed are baselined at version 0, the scripts are written to be re-runnable on them.
+     */
+    @Bean(initMethod = "migrate")
+    public Flyway flyway() {
+        return Flyway.configure()
+                .dataSource(dataSource())
+                .locations("classpath:db/migration/" + databaseVendor().getName())
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+    }
+
+    private DatabaseVendor databaseVendor() {
+        return new DatabaseVendor(environment);
+    }
+
+    /**
+     * Hibernate also reads hibernate.properties itself and would ask for connections with the
+     * credentials found there, which the pool does not support; it already holds them.
+     */
+    private DataSource hibernateDataSource() {
+        return new DelegatingDataSource(dataSource()) {
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return getConnection();
+            }
+        };
+    }
+
     private Properties hibernateProperties() {
         Properties properties = new Properties();
         properties.put("hibernate.dialect", environment.getRequiredProperty("hibernate.dialect"));
         properties.put("hibernate.show_sql", environment.getRequiredProperty("hibernate.show_sql"));
 
-        return properties;
-    }
+        properties.put("hibernate.jdbc.batch_size", environment.getProperty("hibernate.jdbc.batch_size", "50"));
+        properties.put("hibernate.order_inserts", environment.getProperty("hibernate.order_inserts", "true"));
+        properties.put("hibernate.order_updates", environment.getProperty("hibernate.order_updates", "true"));
+        properties.put("hibernate.jdbc.fetch_size", environment.getProperty("hibernate.jdbc.fetch_size", "100"));
+        properties.put("hibernate.query.plan_cache_max_size",
+                environment.getProperty("hibernate.query.plan_cache_max_size", "2048"));
+        properties.put("hibernate.query.in_clause_parameter_padding", "true");
+        if (environment.getProperty("library.metrics.requests", Boolean.class, true)) {
+            // per-request statement counts and JDBC time, see RequestMetricsInterceptor
+            properties.put("hibernate.session.events.auto", StatementMetricsListener.class.getName());
+            properties.put("hibernate.session_factory.statement_inspector",
+                    new StatementMetricsListener.SelectInspector());
+        }
 
-    @Bean
-    public LocalSessionFactoryBean sessionFactory() {
-        LocalSessionFactoryBean sessionFactory = new LocalSessionFactoryBean();
-        sessionFactory.setDataSource(dataSource());
-        sessionFactory.setPackagesToScan("library.management.application.models");
-        sessionFactory.setHibernateProperties(hibernateProperties());
+        boolean secondLevelCache = environment.getProperty("hibernate.cache.use_second_level_cache", Boolean.class, false);
+        properties.put("hibernate.cache.use_second_level_cache", String.valueOf(secondLevelCache));
+        properties.put("hibernate.generate_statistics",
+                environment.getProperty("hibernate.generate_statistics", String.valueOf(secondLevelCache)));
+        if (secondLevelCache) {
+            // in-process Caffeine caches, regions are configured in application.conf
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.provider",
+                    "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "create");
+            properties.put("hibernate.cache.use_query_cache",
+                    environment.getProperty("hibernate.cache.use_query_cache", "true"));
+            properties.put("jakarta.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+        }
 
-        return sessionFactory;
+        return properties;
     }
 
     @Bean
+    @DependsOn("flyway")
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
-        final LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
-        em.setDataSource(dataSource());
+        final LocalContainerEntityManagerFactoryBean em = new TimedEntityManagerFactoryBean();
+        em.setDataSource(hibernateDataSource());
         em.setPackagesToScan("library.management.application.models");
 
         final HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
@@ -119,9 +313,17 @@ public class SpringConfig implements WebMvcConfigurer {
         return em;
     }
 
+    @Bean
+    public HibernateCacheMetrics hibernateCacheMetrics() {
+        SessionFactory sessionFactory = entityManagerFactory().getObject().unwrap(SessionFactory.class);
+        HibernateCacheMetrics cacheMetrics = new HibernateCacheMetrics(sessionFactory);
+        cacheMetrics.bindTo(meterRegistry());
+        return cacheMetrics;
+    }
+
     @Bean
     public PlatformTransactionManager transactionManager() {
-        JpaTransactionManager transactionManager = new JpaTransactionManager();
+        JpaTransactionManager transactionManager = new TimedJpaTransactionManager(meterRegistry());
         transactionManager.setEntityManagerFactory(entityManagerFactory().getObject());
 
         return transactionManager;
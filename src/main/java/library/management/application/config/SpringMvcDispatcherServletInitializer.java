@@ -1,16 +1,27 @@
 package library.management.application.config;
 
+import ch.qos.logback.classic.LoggerContext;
 import jakarta.servlet.DispatcherType;
 import jakarta.servlet.FilterRegistration;
+import jakarta.servlet.MultipartConfigElement;
 import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRegistration;
+import org.slf4j.LoggerFactory;
 import org.springframework.web.filter.CharacterEncodingFilter;
+import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.filter.HiddenHttpMethodFilter;
+import org.springframework.web.servlet.FrameworkServlet;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
 import org.springframework.web.servlet.support.AbstractAnnotationConfigDispatcherServletInitializer;
 
 import java.util.EnumSet;
 
 public class SpringMvcDispatcherServletInitializer extends AbstractAnnotationConfigDispatcherServletInitializer {
+    private static final int MULTIPART_FILE_SIZE_THRESHOLD = 1024 * 1024;
+
     @Override
     protected Class<?>[] getRootConfigClasses() {
         return new Class[0];
@@ -27,16 +38,31 @@ public class SpringMvcDispatcherServletInitializer extends AbstractAnnotationCon
     }
 
 
+    @Override
+    protected FrameworkServlet createDispatcherServlet(WebApplicationContext servletAppContext) {
+        return new VirtualThreadDispatcherServlet(servletAppContext);
+    }
+
     @Override
     public void onStartup(ServletContext aServletContext) throws ServletException {
+        // stops logback last on undeploy, so the asynchronous appender flushes its queue
+        aServletContext.addListener(new ServletContextListener() {
+            @Override
+            public void contextDestroyed(ServletContextEvent event) {
+                ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+            }
+        });
         super.onStartup(aServletContext);
         registerHiddenFieldFilter(aServletContext);
         registerCharacterEncodingFilter(aServletContext);
+        registerResourceUrlEncodingFilter(aServletContext);
     }
 
     private void registerHiddenFieldFilter(ServletContext aContext) {
-        aContext.addFilter("hiddenHttpMethodFilter",
-                new HiddenHttpMethodFilter()).addMappingForUrlPatterns(null ,true, "/*");
+        FilterRegistration.Dynamic hiddenHttpMethod = aContext.addFilter("hiddenHttpMethodFilter",
+                new HiddenHttpMethodFilter());
+        hiddenHttpMethod.setAsyncSupported(true);
+        hiddenHttpMethod.addMappingForUrlPatterns(null ,true, "/*");
     }
 
     private void registerCharacterEncodingFilter(ServletContext servletContext) {
@@ -47,11 +73,23 @@ public class SpringMvcDispatcherServletInitializer extends AbstractAnnotationCon
         characterEncodingFilter.setForceEncoding(true);
 
         FilterRegistration.Dynamic characterEncoding = servletContext.addFilter("characterEncoding", characterEncodingFilter);
+        // VirtualThreadDispatcherServlet starts async processing, which every filter on the way has to allow
+        characterEncoding.setAsyncSupported(true);
         characterEncoding.addMappingForUrlPatterns(dispatcherTypes, true, "/*");
     }
-/*
+
+    // rewrites links to /resources/** in rendered pages to their content-hashed names
+    private void registerResourceUrlEncodingFilter(ServletContext servletContext) {
+        FilterRegistration.Dynamic resourceUrlEncoding = servletContext.addFilter("resourceUrlEncoding",
+                new ResourceUrlEncodingFilter());
+        resourceUrlEncoding.setAsyncSupported(true);
+        resourceUrlEncoding.addMappingForUrlPatterns(null, true, "/*");
+    }
+
     @Override
     protected void customizeRegistration(ServletRegistration.Dynamic registration) {
-        registration.setInitParameter("enableLoggingRequestDetails", "true");
-    }*/
+        // uploads larger than the threshold are spooled to disk instead of being held in memory
+        registration.setMultipartConfig(new MultipartConfigElement(System.getProperty("java.io.tmpdir"),
+                -1, -1, MULTIPART_FILE_SIZE_THRESHOLD));
+    }
 }
@@ -0,0 +1,22 @@
+package library.management.application.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import java.util.concurrent.TimeUnit;
+
+public class TimedEntityManagerFactoryBean extends LocalContainerEntityManagerFactoryBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimedEntityManagerFactoryBean.class);
+
+    @Override
+    public void afterPropertiesSet() {
+        long start = System.nanoTime();
+        super.afterPropertiesSet();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        LOGGER.info("Persistence unit '{}' bootstrapped in {} ms ({} managed types)",
+                getPersistenceUnitName(), elapsed,
+                getNativeEntityManagerFactory().getMetamodel().getManagedTypes().size());
+    }
+}
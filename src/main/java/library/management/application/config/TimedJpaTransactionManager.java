@@ -0,0 +1,86 @@
+package library.management.application.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import library.management.application.metrics.RequestMetrics;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long each transaction stays open, tagged with the transactional method
+ * (e.g. BooksService.assignBooks) and whether it committed.
+ */
+public class TimedJpaTransactionManager extends JpaTransactionManager {
+    // suspended transactions resume in reverse order, so a stack per thread matches begin and end
+    private static final ThreadLocal<Deque<Started>> STARTED = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final MeterRegistry registry;
+
+    public TimedJpaTransactionManager(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        STARTED.get().push(new Started(definition));
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        super.doCommit(status);
+        Started started = STARTED.get().peek();
+        if (started != null)
+            started.committed = true;
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            Started started = STARTED.get().poll();
+            if (started != null)
+                record(started);
+        }
+    }
+
+    private void record(Started started) {
+        Timer.builder("library.transactions")
+                .description("Time from transaction begin to commit or rollback")
+                .tag("method", started.name)
+                .tag("read_only", String.valueOf(started.readOnly))
+                .tag("outcome", started.committed ? "commit" : "rollback")
+                .register(registry)
+                .record(System.nanoTime() - started.start, TimeUnit.NANOSECONDS);
+        RequestMetrics.transactionCompleted();
+    }
+
+    private static final class Started {
+        private final String name;
+        private final boolean readOnly;
+        private final long start = System.nanoTime();
+        private boolean committed;
+
+        private Started(TransactionDefinition definition) {
+            this.name = shortName(definition.getName());
+            this.readOnly = definition.isReadOnly();
+        }
+
+        /**
+         * library.management.application.services.BooksService.assignBooks becomes BooksService.assignBooks.
+         */
+        private static String shortName(String name) {
+            if (name == null)
+                return "unnamed";
+            int method = name.lastIndexOf('.');
+            int type = method > 0 ? name.lastIndexOf('.', method - 1) : -1;
+            return name.substring(type + 1);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package library.management.application.config;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optionally hands every request over to a virtual thread (library.virtual_threads.enabled). The container
+ * thread only starts async processing and returns to its pool, so a request blocked on JDBC no longer holds
+ * a platform thread.
+ *
+ * <p>Requests in flight are capped by a fair semaphore, by default at the size of the connection pool:
+ * virtual threads are unbounded, the pool is not, and waiting here is cheap and ordered, while waiting in
+ * the pool times out after pool.connection_timeout_ms. A request that cannot start within
+ * library.virtual_threads.queue_timeout_ms gets 503.
+ */
+public class VirtualThreadDispatcherServlet extends DispatcherServlet {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadDispatcherServlet.class);
+
+    private ExecutorService executor;
+    private Semaphore permits;
+    private long queueTimeoutMillis;
+
+    public VirtualThreadDispatcherServlet(WebApplicationContext webApplicationContext) {
+        super(webApplicationContext);
+    }
+
+    @Override
+    protected void initFrameworkServlet() throws ServletException {
+        super.initFrameworkServlet();
+        Environment environment = getWebApplicationContext().getEnvironment();
+        if (!environment.getProperty("library.virtual_threads.enabled", Boolean.class, false))
+            return;
+
+        int maxConcurrency = environment.getProperty("library.virtual_threads.max_concurrency", Integer.class,
+                environment.getProperty("pool.maximum_size", Integer.class, 10));
+        queueTimeoutMillis = environment.getProperty("library.virtual_threads.queue_timeout_ms", Long.class, 10000L);
+        permits = new Semaphore(maxConcurrency, true);
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("request-", 0).factory());
+        LOGGER.info("Requests run on virtual threads, at most {} at a time", maxConcurrency);
+    }
+
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        if (executor == null || request.getDispatcherType() != DispatcherType.REQUEST || !request.isAsyncSupported()) {
+            super.service(request, response);
+            return;
+        }
+
+        // the wrapped request keeps what the filters did, e.g. the _method override
+        AsyncContext async = request.startAsync(request, response);
+        async.setTimeout(0);
+        executor.execute(() -> {
+            try {
+                if (!permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                    return;
+                }
+                try {
+                    super.service(request, response);
+                } finally {
+                    permits.release();
+                }
+            } catch (Exception e) {
+                LOGGER.error("Request {} {} failed", request.getMethod(), request.getRequestURI(), e);
+                if (!response.isCommitted())
+                    sendServerError(response);
+            } finally {
+                async.complete();
+            }
+        });
+    }
+
+    private static void sendServerError(HttpServletResponse response) {
+        try {
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        } catch (IOException e) {
+            LOGGER.debug("Could not send the error response", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null)
+            executor.close();
+        super.destroy();
+    }
+}
@@ -0,0 +1,62 @@
+package library.management.application.controllers;
+
+import library.management.application.importing.BookImportFormat;
+import library.management.application.importing.BookImportJob;
+import library.management.application.importing.BookImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+
+@Controller
+@RequestMapping("/books/import")
+public class BookImportController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookImportController.class);
+
+    private final BookImportService importService;
+
+    @Autowired
+    public BookImportController(BookImportService importService) {
+        this.importService = importService;
+    }
+
+    @GetMapping
+    public String importPage() {
+        return "books/import";
+    }
+
+    @PostMapping
+    public String upload(@RequestParam("file") MultipartFile file, Model model) throws IOException {
+        BookImportFormat format = BookImportFormat.of(file.getOriginalFilename());
+        if(file.isEmpty() || format == null) {
+            model.addAttribute("error", "Оберіть непорожній файл .csv або .json");
+            return "books/import";
+        }
+
+        BookImportJob job = importService.start(file, format);
+        LOGGER.info("Import {} of {} ({} bytes) was started", job.getId(), file.getOriginalFilename(), file.getSize());
+        return "redirect:/books/import/" + job.getId();
+    }
+
+    @GetMapping("/{jobId}")
+    public String progress(@PathVariable("jobId") String jobId, Model model) {
+        BookImportJob job = importService.findJob(jobId);
+        if(job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        model.addAttribute("job", job);
+
+        return "books/importProgress";
+    }
+}
@@ -1,20 +1,35 @@
 package library.management.application.controllers;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import library.management.application.dto.BatchResult;
+import library.management.application.dto.BookListItem;
+import library.management.application.dto.BookSearchCriteria;
+import library.management.application.dto.BookSearchRow;
+import library.management.application.dto.PersonListItem;
 import library.management.application.models.Book;
 import library.management.application.models.Person;
 import library.management.application.services.BooksService;
 import library.management.application.services.PeopleService;
+import library.management.application.utils.ChunkedRendering;
+import library.management.application.utils.KeysetPage;
+import library.management.application.utils.LoanPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
 
 
 @Controller
@@ -22,48 +37,76 @@ import java.util.Collections;
 public class BooksController {
     private final BooksService booksService;
     private final PeopleService peopleService;
+    private final LoanPolicy loanPolicy;
+    private final ChunkedRendering chunkedRendering;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BooksController.class);
+    private static final int READERS_PAGE_SIZE = 20;
+    private static final int SEARCH_PAGE_SIZE = 20;
+    private static final int MAX_SEARCH_PAGE_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final Pattern ID_SEPARATOR = Pattern.compile("[\\s,;]+");
 
     @Autowired
     public BooksController(BooksService booksService,
-                           PeopleService peopleService) {
+                           PeopleService peopleService,
+                           LoanPolicy loanPolicy,
+                           ChunkedRendering chunkedRendering) {
         this.booksService = booksService;
         this.peopleService = peopleService;
+        this.loanPolicy = loanPolicy;
+        this.chunkedRendering = chunkedRendering;
     }
 
     @GetMapping
-    public String mainPage(Model model, @RequestParam(value = "page", defaultValue = "0") Integer pageStart,
+    public String mainPage(Model model, @RequestParam(value = "cursor", required = false) String cursor,
                            @RequestParam(defaultValue = "5") Integer size,
                            @RequestParam(value = "sort_by_year", required = false) Boolean sortByYear) {
-        Page<Book> bookPage;
-        if(sortByYear == null) {
-            bookPage = booksService.findAllBookWithPagination(pageStart, size);
-            model.addAttribute("sort", false);
-        } else {
-            bookPage = booksService.findAllBooksSortedByYearWithPagination(pageStart, size, sortByYear);
-            model.addAttribute("sort", true);
-        }
+        size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        KeysetPage<BookListItem> bookPage = booksService.findBooksPage(cursor, size, Boolean.TRUE.equals(sortByYear));
+        model.addAttribute("sort", sortByYear != null);
         model.addAttribute("books", bookPage.getContent());
-        model.addAttribute("currentPage", pageStart);
-        model.addAttribute("totalPages", bookPage.getTotalPages());
+        model.addAttribute("nextCursor", bookPage.getNextCursor());
+        model.addAttribute("previousCursor", bookPage.getPreviousCursor());
+        model.addAttribute("estimatedTotal", booksService.estimateBookCount());
 
 
         return "books/mainList";
     }
 
+    @GetMapping("/overdue")
+    public String overduePage(Model model,
+                              @RequestParam(value = "page", defaultValue = "0") Integer page,
+                              @RequestParam(value = "size", defaultValue = "20") Integer size) {
+        Page<Book> overduePage = booksService.findOverdueBooks(page, size);
+        model.addAttribute("books", overduePage.getContent());
+        model.addAttribute("currentPage", page);
+        model.addAttribute("totalPages", overduePage.getTotalPages());
+        model.addAttribute("loanPeriodDays", loanPolicy.getLoanPeriodDays());
+
+        return "books/overdue";
+    }
+
     @GetMapping("/{id}")
     public String showOneBook(@PathVariable("id") int id,
                               Model model,
-                              @ModelAttribute("person") Person person) {
-        Book book = booksService.findBookById(id);
+                              @ModelAttribute("person") Person person,
+                              @RequestParam(value = "reader", required = false) String readerQuery,
+                              @RequestParam(value = "reader_page", defaultValue = "0") Integer readerPage) {
+        Book book = booksService.findBookWithOwner(id);
         model.addAttribute("book", book);
 
-        Person bookOwner = booksService.findBookOwner(id);
+        Person bookOwner = book == null ? null : book.getAssignedPerson();
         if(bookOwner == null) {
-            model.addAttribute("people", peopleService.findAll());
+            Slice<PersonListItem> readers = peopleService.findReaders(readerQuery, readerPage, READERS_PAGE_SIZE);
+            model.addAttribute("people", readers.getContent());
+            model.addAttribute("readerQuery", readerQuery);
+            model.addAttribute("readerPage", readerPage);
+            model.addAttribute("hasNextReaders", readers.hasNext());
         } else {
             model.addAttribute("bookOwner", bookOwner);
+            model.addAttribute("loanPeriodDays", loanPolicy.getLoanPeriodDays());
         }
 
         return "books/showOne";
@@ -100,7 +143,12 @@ public class BooksController {
         if(bindingResult.hasErrors()) {
             return "books/edit";
         }
-        booksService.updateBook(id, book);
+        try {
+            booksService.updateBook(id, book);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            bindingResult.reject("book.concurrentUpdate", "Книгу щойно змінив інший користувач, відкрийте її ще раз");
+            return "books/edit";
+        }
         LOGGER.info("Book with id = {} was updated", id);
         return "redirect:/books";
     }
@@ -115,9 +163,24 @@ public class BooksController {
 
     @PatchMapping("/{id}/assign")
     public String assignBook(@PathVariable("id") int id,
-                             @ModelAttribute("person") Person person) {
-        booksService.assignBookToPerson(id, person);
-        LOGGER.info("Book with id = {} was assigned to user with id = {}", id, person.getPersonId());
+                             @ModelAttribute("person") Person person,
+                             RedirectAttributes redirectAttributes) {
+        BatchResult.Outcome outcome = booksService.assignBookToPerson(id, person);
+        if(outcome == BatchResult.Outcome.ALREADY_TAKEN) {
+            LOGGER.info("Book with id = {} was already taken, not assigned to user with id = {}",
+                    id, person.getPersonId());
+            redirectAttributes.addFlashAttribute("checkoutError", "Книгу щойно видали іншому читачеві");
+        } else if(outcome == BatchResult.Outcome.READER_NOT_FOUND) {
+            LOGGER.info("User with id = {} was not found, book with id = {} not assigned", person.getPersonId(), id);
+            redirectAttributes.addFlashAttribute("checkoutError", "Читача не знайдено");
+        } else if(outcome == BatchResult.Outcome.BOOK_NOT_FOUND) {
+            LOGGER.info("Book with id = {} was not found, not assigned to user with id = {}",
+                    id, person.getPersonId());
+            redirectAttributes.addFlashAttribute("checkoutError", "Книгу не знайдено");
+            return "redirect:/books";
+        } else {
+            LOGGER.info("Book with id = {} was assigned to user with id = {}", id, person.getPersonId());
+        }
         return "redirect:/books/" + id;
     }
 
@@ -128,6 +191,37 @@ public class BooksController {
         return "redirect:/books/" + id;
     }
 
+    @PatchMapping("/batch/assign")
+    public String assignBooks(@RequestParam(value = "ids", defaultValue = "") List<String> ids,
+                              @RequestParam("person_id") int personId,
+                              RedirectAttributes redirectAttributes) {
+        BatchResult result = booksService.assignBooks(parseIds(ids, redirectAttributes), personId);
+        LOGGER.info("Batch assign to user with id = {}: {} done, {} failed",
+                personId, result.getSucceeded(), result.getFailed());
+        redirectAttributes.addFlashAttribute("batchResult", result);
+        return "redirect:/people/" + personId;
+    }
+
+    @PatchMapping("/batch/release")
+    public String releaseBooks(@RequestParam(value = "ids", defaultValue = "") List<String> ids,
+                               @RequestParam(value = "return_to", required = false) Integer returnTo,
+                               RedirectAttributes redirectAttributes) {
+        BatchResult result = booksService.releaseBooks(parseIds(ids, redirectAttributes));
+        LOGGER.info("Batch release: {} done, {} failed", result.getSucceeded(), result.getFailed());
+        redirectAttributes.addFlashAttribute("batchResult", result);
+        return returnTo == null ? "redirect:/books" : "redirect:/people/" + returnTo;
+    }
+
+    @PatchMapping("/batch/extend")
+    public String extendLoans(@RequestParam(value = "ids", defaultValue = "") List<String> ids,
+                              @RequestParam(value = "return_to", required = false) Integer returnTo,
+                              RedirectAttributes redirectAttributes) {
+        BatchResult result = booksService.extendLoans(parseIds(ids, redirectAttributes));
+        LOGGER.info("Batch extend: {} done, {} failed", result.getSucceeded(), result.getFailed());
+        redirectAttributes.addFlashAttribute("batchResult", result);
+        return returnTo == null ? "redirect:/books" : "redirect:/people/" + returnTo;
+    }
+
     @DeleteMapping("/{id}")
     public String delete(@PathVariable("id") int id) {
         booksService.deleteBook(id);
@@ -135,46 +229,60 @@ public class BooksController {
         return "redirect:/books";
     }
 
-    @GetMapping("/search")
-    public String searchPage() {
-        return "books/search";
-    }
-
-    @PostMapping("/search")
-    public String makeSearch(Model model,
-                             @RequestParam(value = "title", required = false) String title,
-                             @RequestParam(value = "author", required = false) String author,
-                             @RequestParam(value = "year", required = false) Integer year) {
-        if(title == null && author == null && year == null) {
-            model.addAttribute("books", Collections.emptyList());
-        }
-        if(title != null && author == null && year == null) {
-            model.addAttribute("books", booksService.findByTitle(title));
-        }
-        if(title == null && author != null && year == null) {
-            model.addAttribute("books", booksService.findByAuthor(author));
+    /**
+     * Ids come from checkboxes or from a text field filled by a barcode scanner, so every value
+     * may hold several ids separated by spaces, commas or new lines.
+     */
+    private static List<Integer> parseIds(List<String> values, RedirectAttributes redirectAttributes) {
+        List<Integer> ids = new ArrayList<>();
+        List<String> invalid = new ArrayList<>();
+        for (String value : values) {
+            for (String token : ID_SEPARATOR.split(value.trim())) {
+                if (token.isEmpty())
+                    continue;
+                try {
+                    ids.add(Integer.valueOf(token));
+                } catch (NumberFormatException e) {
+                    invalid.add(token);
+                }
+            }
         }
-        if(title == null && author == null && year != null) {
-            model.addAttribute("books", booksService.findByYearOfProduction(year));
+        if (ids.size() > MAX_BATCH_SIZE) {
+            redirectAttributes.addFlashAttribute("batchError",
+                    "За один раз можна обробити не більше " + MAX_BATCH_SIZE + " книг");
+            return Collections.emptyList();
         }
-        if(title != null && author != null && year == null) {
-            model.addAttribute("books",
-                    booksService.findByAuthorAndTitle(author, title));
-        }
-        if(title != null && author == null && year != null) {
-            model.addAttribute("books",
-                    booksService.findByTitleAndYearOfProduction(title, year));
-        }
-        if(title == null && author != null && year != null) {
-            model.addAttribute("books",
-                    booksService.findByAuthorAndYearOfProduction(author, year));
-        }
-        if(title != null && author != null && year != null) {
-            model.addAttribute("books",
-                    booksService.findByTitleAndAuthorAndYearOfProduction(title, author, year));
+        if (!invalid.isEmpty()) {
+            redirectAttributes.addFlashAttribute("batchError",
+                    "Некоректні номери книг: " + String.join(", ", invalid));
         }
+        return ids;
+    }
 
+    @GetMapping("/search")
+    public String searchPage(Model model, HttpServletResponse response,
+                             @RequestParam(value = "q", required = false) String query,
+                             @ModelAttribute("criteria") BookSearchCriteria criteria,
+                             @RequestParam(value = "sort", required = false) String sortBy,
+                             @RequestParam(value = "page", defaultValue = "0") Integer page,
+                             @RequestParam(value = "size", defaultValue = "" + SEARCH_PAGE_SIZE) Integer size) {
+        size = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        Page<BookSearchRow> bookPage = null;
+        if(query != null && !query.isBlank()) {
+            bookPage = booksService.searchBooks(query, page, size);
+            model.addAttribute("q", query);
+        } else if(!criteria.isEmpty()) {
+            bookPage = booksService.searchRows(criteria, page, size, sortBy);
+            model.addAttribute("sort", sortBy);
+        }
 
+        model.addAttribute("size", size);
+        if(bookPage != null) {
+            model.addAttribute("books", bookPage.getContent());
+            model.addAttribute("bookRows", chunkedRendering.rows(bookPage.getContent(), response));
+            model.addAttribute("currentPage", page);
+            model.addAttribute("totalPages", bookPage.getTotalPages());
+        }
         return "books/search";
     }
 }
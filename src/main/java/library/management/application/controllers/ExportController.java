@@ -0,0 +1,52 @@
+package library.management.application.controllers;
+
+import jakarta.servlet.http.HttpServletResponse;
+import library.management.application.exporting.ExportDataset;
+import library.management.application.exporting.ExportFormat;
+import library.management.application.exporting.ExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+@Controller
+@RequestMapping("/export")
+public class ExportController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExportController.class);
+
+    private final ExportService exportService;
+
+    @Autowired
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/{dataset}")
+    public void export(@PathVariable("dataset") String datasetName,
+                       @RequestParam(value = "format", defaultValue = "csv") String formatName,
+                       HttpServletResponse response) throws IOException {
+        ExportDataset dataset = ExportDataset.of(datasetName);
+        ExportFormat format = ExportFormat.of(formatName);
+        if(dataset == null || format == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+
+        response.setContentType(format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\""
+                + dataset.getFileName() + "-" + LocalDate.now() + format.getExtension() + "\"");
+
+        long start = System.nanoTime();
+        exportService.export(dataset, format, response.getOutputStream());
+        LOGGER.info("Export of {} as {} took {} ms", dataset, format, (System.nanoTime() - start) / 1_000_000);
+    }
+}
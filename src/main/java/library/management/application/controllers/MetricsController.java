@@ -0,0 +1,42 @@
+package library.management.application.controllers;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+@Controller
+@RequestMapping("/metrics")
+public class MetricsController {
+    private final PrometheusMeterRegistry meterRegistry;
+
+    @Autowired
+    public MetricsController(PrometheusMeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @GetMapping(produces = "text/plain; version=0.0.4; charset=utf-8")
+    @ResponseBody
+    public String scrape(HttpServletRequest request) {
+        if(!isLocal(request.getRemoteAddr())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        return meterRegistry.scrape();
+    }
+
+    private boolean isLocal(String remoteAddress) {
+        try {
+            return InetAddress.getByName(remoteAddress).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
@@ -1,27 +1,31 @@
 package library.management.application.controllers;
 
 import jakarta.validation.Valid;
-import library.management.application.models.Book;
+import library.management.application.dto.PersonListItem;
+import library.management.application.dto.PersonSearchCriteria;
 import library.management.application.models.Person;
 import library.management.application.services.PeopleService;
+import library.management.application.utils.KeysetPage;
 import library.management.application.utils.PersonValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @Controller
 @RequestMapping("/people")
 public class PeopleController {
     private final PeopleService peopleService;
     private final PersonValidator personValidator;
     private static final Logger LOGGER = LoggerFactory.getLogger(PeopleController.class);
+    private static final int SEARCH_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Autowired
     public PeopleController(PeopleService peopleService,
@@ -32,20 +36,16 @@ public class PeopleController {
 
     @GetMapping
     public String mainPage(Model model,
-                           @RequestParam(value = "page", defaultValue = "0") Integer page,
+                           @RequestParam(value = "cursor", required = false) String cursor,
                            @RequestParam(value = "size", defaultValue = "5") Integer size,
                            @RequestParam(value = "sort_by_name", required = false) Boolean sort) {
-        Page<Person> personPage;
-        if(sort == null) {
-            personPage = peopleService.findAllPeopleWithPagination(page, size);
-            model.addAttribute("sort", false);
-        } else {
-            personPage = peopleService.findAllPeopleSortedByNameWithPagination(page, size, sort);
-            model.addAttribute("sort", true);
-        }
-        model.addAttribute("people", personPage);
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", personPage.getTotalPages());
+        size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        KeysetPage<PersonListItem> personPage = peopleService.findPeoplePage(cursor, size, Boolean.TRUE.equals(sort));
+        model.addAttribute("sort", sort != null);
+        model.addAttribute("people", personPage.getContent());
+        model.addAttribute("nextCursor", personPage.getNextCursor());
+        model.addAttribute("previousCursor", personPage.getPreviousCursor());
+        model.addAttribute("estimatedTotal", peopleService.estimatePeopleCount());
 
 
         return "people/main";
@@ -54,11 +54,11 @@ public class PeopleController {
     @GetMapping("/{id}")
     public String showOnePerson(@PathVariable("id") int id,
             Model model) {
-        model.addAttribute("person", peopleService.findPersonById(id));
+        Person person = peopleService.findPersonWithBooks(id);
+        model.addAttribute("person", person);
 
-        List<Book> bookList = peopleService.findBooksByPersonId(id);
-        if(!bookList.isEmpty()) {
-            model.addAttribute("bookList", bookList);
+        if(person != null && !person.getBooks().isEmpty()) {
+            model.addAttribute("bookList", person.getBooks());
         }
 
         return "people/showOne";
@@ -78,7 +78,15 @@ public class PeopleController {
         if(bindingResult.hasErrors()) {
             return "people/new";
         }
-        peopleService.createNewPerson(person);
+        try {
+            peopleService.createNewPerson(person);
+        } catch (DataIntegrityViolationException e) {
+            if(!PersonValidator.isDuplicateName(e)) {
+                throw e;
+            }
+            personValidator.rejectDuplicateName(bindingResult);
+            return "people/new";
+        }
         LOGGER.info("Created new person ");
         return "redirect:/people";
     }
@@ -98,7 +106,18 @@ public class PeopleController {
         if(bindingResult.hasErrors()) {
             return "people/edit";
         }
-        peopleService.updatePerson(id, person);
+        try {
+            peopleService.updatePerson(id, person);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            bindingResult.reject("person.concurrentUpdate", "Дані читача щойно змінив інший користувач, відкрийте їх ще раз");
+            return "people/edit";
+        } catch (DataIntegrityViolationException e) {
+            if(!PersonValidator.isDuplicateName(e)) {
+                throw e;
+            }
+            personValidator.rejectDuplicateName(bindingResult);
+            return "people/edit";
+        }
         LOGGER.info("Person with id = {} was updated", id);
         return "redirect:/people";
     }
@@ -111,22 +130,22 @@ public class PeopleController {
     }
 
     @GetMapping("/search")
-    public String searchPage() {
-        return "people/search";
-    }
-
-    @PostMapping("/search")
-    public String makeSearch(Model model,
-                             @RequestParam(value = "name", required = false) String name,
-                             @RequestParam(value = "year", required = false) Integer year) {
-        if(name != null && year == null) {
-            model.addAttribute("people", peopleService.findByFullNameContaining(name));
-        }
-        if(name == null && year != null) {
-            model.addAttribute("people", peopleService.findByYearOfBirth(year));
+    public String searchPage(Model model,
+                             @RequestParam(value = "q", required = false) String query,
+                             @ModelAttribute("criteria") PersonSearchCriteria criteria,
+                             @RequestParam(value = "page", defaultValue = "0") Integer page) {
+        Page<PersonListItem> personPage = null;
+        if(query != null && !query.isBlank()) {
+            personPage = peopleService.searchPeople(query, page, SEARCH_PAGE_SIZE);
+            model.addAttribute("q", query);
+        } else if(!criteria.isEmpty()) {
+            personPage = peopleService.searchRows(criteria, page, SEARCH_PAGE_SIZE);
         }
-        if(name != null && year != null) {
-            model.addAttribute("people", peopleService.findByFullNameContainingAndYearOfBirth(name, year));
+
+        if(personPage != null) {
+            model.addAttribute("people", personPage.getContent());
+            model.addAttribute("currentPage", page);
+            model.addAttribute("totalPages", personPage.getTotalPages());
         }
         return "people/search";
     }
@@ -0,0 +1,54 @@
+package library.management.application.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a circulation batch, one item per requested book in the order the ids were given.
+ */
+public class BatchResult {
+    public enum Outcome {
+        DONE, BOOK_NOT_FOUND, READER_NOT_FOUND, ALREADY_TAKEN, NOT_TAKEN, CONFLICT
+    }
+
+    public static class Item {
+        private final int bookId;
+        private final Outcome outcome;
+
+        public Item(int bookId, Outcome outcome) {
+            this.bookId = bookId;
+            this.outcome = outcome;
+        }
+
+        public int getBookId() {
+            return bookId;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public boolean isDone() {
+            return outcome == Outcome.DONE;
+        }
+    }
+
+    private final List<Item> items = new ArrayList<>();
+
+    public void add(int bookId, Outcome outcome) {
+        items.add(new Item(bookId, outcome));
+    }
+
+    public List<Item> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    public long getSucceeded() {
+        return items.stream().filter(Item::isDone).count();
+    }
+
+    public long getFailed() {
+        return items.size() - getSucceeded();
+    }
+}
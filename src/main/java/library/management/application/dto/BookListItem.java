@@ -0,0 +1,31 @@
+package library.management.application.dto;
+
+public class BookListItem {
+    private final int bookId;
+    private final String title;
+    private final String author;
+    private final int yearOfProduction;
+
+    public BookListItem(int bookId, String title, String author, int yearOfProduction) {
+        this.bookId = bookId;
+        this.title = title;
+        this.author = author;
+        this.yearOfProduction = yearOfProduction;
+    }
+
+    public int getBookId() {
+        return bookId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public int getYearOfProduction() {
+        return yearOfProduction;
+    }
+}
@@ -0,0 +1,61 @@
+package library.management.application.dto;
+
+/**
+ * Filters of the book search form. Blank values mean "any".
+ */
+public class BookSearchCriteria {
+    private String title;
+    private String author;
+    private Integer year;
+    private Boolean available;
+
+    public BookSearchCriteria() {
+    }
+
+    public BookSearchCriteria(String title, String author, Integer year, Boolean available) {
+        this.title = title;
+        this.author = author;
+        this.year = year;
+        this.available = available;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public Integer getYear() {
+        return year;
+    }
+
+    public void setYear(Integer year) {
+        this.year = year;
+    }
+
+    public Boolean getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(Boolean available) {
+        this.available = available;
+    }
+
+    public boolean isEmpty() {
+        return isBlank(title) && isBlank(author) && year == null && available == null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
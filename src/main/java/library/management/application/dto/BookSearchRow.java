@@ -0,0 +1,57 @@
+package library.management.application.dto;
+
+import library.management.application.models.Book;
+import library.management.application.models.Person;
+
+/**
+ * The columns the book search page renders: the book and the name of the reader who has it.
+ */
+public class BookSearchRow {
+    private final int bookId;
+    private final String title;
+    private final String author;
+    private final int yearOfProduction;
+    private final Integer ownerId;
+    private final String ownerName;
+
+    public BookSearchRow(int bookId, String title, String author, int yearOfProduction,
+                         Integer ownerId, String ownerName) {
+        this.bookId = bookId;
+        this.title = title;
+        this.author = author;
+        this.yearOfProduction = yearOfProduction;
+        this.ownerId = ownerId;
+        this.ownerName = ownerName;
+    }
+
+    public static BookSearchRow of(Book book) {
+        Person owner = book.getAssignedPerson();
+        return new BookSearchRow(book.getBookId(), book.getTitle(), book.getAuthor(), book.getYearOfProduction(),
+                owner == null ? null : owner.getPersonId(),
+                owner == null ? null : owner.getFullName());
+    }
+
+    public int getBookId() {
+        return bookId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public int getYearOfProduction() {
+        return yearOfProduction;
+    }
+
+    public Integer getOwnerId() {
+        return ownerId;
+    }
+
+    public String getOwnerName() {
+        return ownerName;
+    }
+}
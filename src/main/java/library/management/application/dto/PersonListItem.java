@@ -0,0 +1,31 @@
+package library.management.application.dto;
+
+import library.management.application.models.Person;
+
+public class PersonListItem {
+    private final int personId;
+    private final String fullName;
+    private final int yearOfBirth;
+
+    public PersonListItem(int personId, String fullName, int yearOfBirth) {
+        this.personId = personId;
+        this.fullName = fullName;
+        this.yearOfBirth = yearOfBirth;
+    }
+
+    public static PersonListItem of(Person person) {
+        return new PersonListItem(person.getPersonId(), person.getFullName(), person.getYearOfBirth());
+    }
+
+    public int getPersonId() {
+        return personId;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public int getYearOfBirth() {
+        return yearOfBirth;
+    }
+}
@@ -0,0 +1,37 @@
+package library.management.application.dto;
+
+/**
+ * Filters of the reader search form. Blank values mean "any".
+ */
+public class PersonSearchCriteria {
+    private String name;
+    private Integer year;
+
+    public PersonSearchCriteria() {
+    }
+
+    public PersonSearchCriteria(String name, Integer year) {
+        this.name = name;
+        this.year = year;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getYear() {
+        return year;
+    }
+
+    public void setYear(Integer year) {
+        this.year = year;
+    }
+
+    public boolean isEmpty() {
+        return (name == null || name.isBlank()) && year == null;
+    }
+}
@@ -0,0 +1,40 @@
+package library.management.application.events;
+
+import library.management.application.models.Book;
+
+public class BookChangedEvent extends CatalogChangedEvent {
+    private final int bookId;
+    private final String title;
+    private final String author;
+
+    public BookChangedEvent(Change change, int bookId, String title, String author) {
+        super(change);
+        this.bookId = bookId;
+        this.title = title;
+        this.author = author;
+    }
+
+    public static BookChangedEvent created(Book book) {
+        return new BookChangedEvent(Change.CREATED, book.getBookId(), book.getTitle(), book.getAuthor());
+    }
+
+    public static BookChangedEvent updated(Book book) {
+        return new BookChangedEvent(Change.UPDATED, book.getBookId(), book.getTitle(), book.getAuthor());
+    }
+
+    public static BookChangedEvent deleted(int bookId) {
+        return new BookChangedEvent(Change.DELETED, bookId, null, null);
+    }
+
+    public int getBookId() {
+        return bookId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+}
@@ -0,0 +1,23 @@
+package library.management.application.events;
+
+/**
+ * Published after a bulk import wrote rows with plain JDBC; every imported book has an id greater than
+ * {@link #getAfterBookId()}.
+ */
+public class BooksImportedEvent {
+    private final int afterBookId;
+    private final long count;
+
+    public BooksImportedEvent(int afterBookId, long count) {
+        this.afterBookId = afterBookId;
+        this.count = count;
+    }
+
+    public int getAfterBookId() {
+        return afterBookId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,17 @@
+package library.management.application.events;
+
+public abstract class CatalogChangedEvent {
+    public enum Change {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Change change;
+
+    protected CatalogChangedEvent(Change change) {
+        this.change = change;
+    }
+
+    public Change getChange() {
+        return change;
+    }
+}
@@ -0,0 +1,19 @@
+package library.management.application.events;
+
+import java.util.List;
+
+/**
+ * Published when books were lent, returned or had their loan extended.
+ */
+public class LoansChangedEvent extends CatalogChangedEvent {
+    private final List<Integer> bookIds;
+
+    public LoansChangedEvent(List<Integer> bookIds) {
+        super(Change.UPDATED);
+        this.bookIds = bookIds;
+    }
+
+    public List<Integer> getBookIds() {
+        return bookIds;
+    }
+}
@@ -0,0 +1,34 @@
+package library.management.application.events;
+
+import library.management.application.models.Person;
+
+public class PersonChangedEvent extends CatalogChangedEvent {
+    private final int personId;
+    private final String fullName;
+
+    public PersonChangedEvent(Change change, int personId, String fullName) {
+        super(change);
+        this.personId = personId;
+        this.fullName = fullName;
+    }
+
+    public static PersonChangedEvent created(Person person) {
+        return new PersonChangedEvent(Change.CREATED, person.getPersonId(), person.getFullName());
+    }
+
+    public static PersonChangedEvent updated(Person person) {
+        return new PersonChangedEvent(Change.UPDATED, person.getPersonId(), person.getFullName());
+    }
+
+    public static PersonChangedEvent deleted(int personId) {
+        return new PersonChangedEvent(Change.DELETED, personId, null);
+    }
+
+    public int getPersonId() {
+        return personId;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+}
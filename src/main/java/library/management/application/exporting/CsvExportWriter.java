@@ -0,0 +1,41 @@
+package library.management.application.exporting;
+
+import java.io.IOException;
+import java.io.Writer;
+
+public class CsvExportWriter implements ExportWriter {
+    private final Writer writer;
+
+    public CsvExportWriter(Writer writer, String[] columns) throws IOException {
+        this.writer = writer;
+        writeRow((Object[]) columns);
+    }
+
+    @Override
+    public void writeRow(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0)
+                writer.write(',');
+            if (values[i] != null)
+                writeField(values[i].toString());
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeField(String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,29 @@
+package library.management.application.exporting;
+
+public enum ExportDataset {
+    BOOKS("book_id", "title", "author", "year_of_production", "person_id", "taken_at"),
+    READERS("person_id", "full_name", "year_of_birth"),
+    LOANS("book_id", "title", "author", "person_id", "full_name", "taken_at", "overdue");
+
+    private final String[] columns;
+
+    ExportDataset(String... columns) {
+        this.columns = columns;
+    }
+
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    public String getFileName() {
+        return name().toLowerCase();
+    }
+
+    public static ExportDataset of(String name) {
+        for (ExportDataset dataset : values()) {
+            if (dataset.name().equalsIgnoreCase(name))
+                return dataset;
+        }
+        return null;
+    }
+}
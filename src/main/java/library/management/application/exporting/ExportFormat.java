@@ -0,0 +1,37 @@
+package library.management.application.exporting;
+
+import java.io.IOException;
+import java.io.Writer;
+
+public enum ExportFormat {
+    CSV("text/csv; charset=UTF-8", ".csv"),
+    JSONL("application/x-ndjson; charset=UTF-8", ".jsonl");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public ExportWriter open(Writer writer, String[] columns) throws IOException {
+        return this == CSV ? new CsvExportWriter(writer, columns) : new JsonLinesExportWriter(writer, columns);
+    }
+
+    public static ExportFormat of(String name) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name))
+                return format;
+        }
+        return null;
+    }
+}
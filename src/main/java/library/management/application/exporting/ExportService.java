@@ -0,0 +1,119 @@
+package library.management.application.exporting;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import library.management.application.models.Book;
+import library.management.application.models.Person;
+import library.management.application.repositories.BooksRepository;
+import library.management.application.repositories.PeopleRepository;
+import library.management.application.utils.LoanPolicy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.stream.Stream;
+
+/**
+ * Writes whole tables to an output stream. Rows come from a server-side cursor and every entity is
+ * detached once written, so the persistence context never holds more than the current row.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BooksRepository booksRepository;
+    private final PeopleRepository peopleRepository;
+    private final LoanPolicy loanPolicy;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ExportService(BooksRepository booksRepository,
+                         PeopleRepository peopleRepository,
+                         LoanPolicy loanPolicy) {
+        this.booksRepository = booksRepository;
+        this.peopleRepository = peopleRepository;
+        this.loanPolicy = loanPolicy;
+    }
+
+    public void export(ExportDataset dataset, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        ExportWriter exportWriter = format.open(writer, dataset.getColumns());
+        try {
+            switch (dataset) {
+                case BOOKS:
+                    exportBooks(exportWriter);
+                    break;
+                case READERS:
+                    exportReaders(exportWriter);
+                    break;
+                case LOANS:
+                    exportLoans(exportWriter);
+                    break;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        exportWriter.flush();
+        writer.flush();
+    }
+
+    private void exportBooks(ExportWriter writer) {
+        try (Stream<Book> books = booksRepository.streamAll()) {
+            books.forEach(book -> {
+                Person owner = book.getAssignedPerson();
+                write(writer, book.getBookId(), book.getTitle(), book.getAuthor(), book.getYearOfProduction(),
+                        owner == null ? null : owner.getPersonId(), format(book.getTakenAt()));
+                detach(book, owner);
+            });
+        }
+    }
+
+    private void exportReaders(ExportWriter writer) {
+        try (Stream<Person> people = peopleRepository.streamAll()) {
+            people.forEach(person -> {
+                write(writer, person.getPersonId(), person.getFullName(), person.getYearOfBirth());
+                entityManager.detach(person);
+            });
+        }
+    }
+
+    private void exportLoans(ExportWriter writer) {
+        Date threshold = loanPolicy.overdueThreshold();
+        try (Stream<Book> loans = booksRepository.streamLoans()) {
+            loans.forEach(book -> {
+                Person owner = book.getAssignedPerson();
+                Date takenAt = book.getTakenAt();
+                write(writer, book.getBookId(), book.getTitle(), book.getAuthor(), owner.getPersonId(),
+                        owner.getFullName(), format(takenAt), takenAt != null && takenAt.before(threshold));
+                detach(book, owner);
+            });
+        }
+    }
+
+    private void detach(Book book, Person owner) {
+        entityManager.detach(book);
+        if (owner != null)
+            entityManager.detach(owner);
+    }
+
+    private static void write(ExportWriter writer, Object... values) {
+        try {
+            writer.writeRow(values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String format(Date date) {
+        return date == null ? null : date.toInstant().toString();
+    }
+}
@@ -0,0 +1,11 @@
+package library.management.application.exporting;
+
+import java.io.Flushable;
+import java.io.IOException;
+
+public interface ExportWriter extends Flushable {
+    /**
+     * Writes one row; values are given in the order of the dataset columns.
+     */
+    void writeRow(Object... values) throws IOException;
+}
@@ -0,0 +1,45 @@
+package library.management.application.exporting;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.Writer;
+
+public class JsonLinesExportWriter implements ExportWriter {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonGenerator generator;
+    private final String[] columns;
+
+    public JsonLinesExportWriter(Writer writer, String[] columns) throws IOException {
+        // the writer belongs to the response, the generator only buffers on top of it
+        this.generator = JSON_FACTORY.createGenerator(writer).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.columns = columns;
+    }
+
+    @Override
+    public void writeRow(Object... values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < columns.length; i++) {
+            Object value = values[i];
+            generator.writeFieldName(columns[i]);
+            if (value == null) {
+                generator.writeNull();
+            } else if (value instanceof Integer) {
+                generator.writeNumber((Integer) value);
+            } else if (value instanceof Boolean) {
+                generator.writeBoolean((Boolean) value);
+            } else {
+                generator.writeString(value.toString());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+}
@@ -0,0 +1,37 @@
+package library.management.application.importing;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public enum BookImportFormat {
+    CSV(".csv"),
+    JSON(".json");
+
+    private final String extension;
+
+    BookImportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public BookRecordReader open(InputStream in) throws IOException {
+        return this == CSV ? new CsvBookRecordReader(in) : new JsonBookRecordReader(in);
+    }
+
+    /**
+     * @return the format matching the file name, or {@code null} when the file is neither CSV nor JSON
+     */
+    public static BookImportFormat of(String fileName) {
+        if (fileName == null)
+            return null;
+        String name = fileName.toLowerCase();
+        if (name.endsWith(".csv"))
+            return CSV;
+        if (name.endsWith(".json") || name.endsWith(".jsonl") || name.endsWith(".ndjson"))
+            return JSON;
+        return null;
+    }
+}
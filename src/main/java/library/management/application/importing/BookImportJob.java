@@ -0,0 +1,110 @@
+package library.management.application.importing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one upload. Updated by the import thread and read by the progress page.
+ */
+public class BookImportJob {
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private static final int MAX_ERRORS = 100;
+
+    private final String id;
+    private final String fileName;
+    private final long totalBytes;
+    private final Date createdAt = new Date();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    private volatile Status status = Status.QUEUED;
+    private volatile Date finishedAt;
+    private volatile String failure;
+
+    public BookImportJob(String id, String fileName, long totalBytes) {
+        this.id = id;
+        this.fileName = fileName;
+        this.totalBytes = totalBytes;
+    }
+
+    void start() {
+        status = Status.RUNNING;
+    }
+
+    void finish() {
+        bytesRead.set(totalBytes);
+        finishedAt = new Date();
+        status = Status.DONE;
+    }
+
+    void fail(String message) {
+        failure = message;
+        finishedAt = new Date();
+        status = Status.FAILED;
+    }
+
+    void imported(int count, long position) {
+        imported.addAndGet(count);
+        bytesRead.set(position);
+    }
+
+    void rejected(long position, String message) {
+        rejected.incrementAndGet();
+        // keep only the first errors so a broken file cannot grow the job without bound
+        if (errors.size() < MAX_ERRORS)
+            errors.add(position + ": " + message);
+    }
+
+    public boolean isRunning() {
+        return status == Status.QUEUED || status == Status.RUNNING;
+    }
+
+    public int getProgressPercent() {
+        return totalBytes == 0 ? 100 : (int) Math.min(100, bytesRead.get() * 100 / totalBytes);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public Date getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getImported() {
+        return imported.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+}
@@ -0,0 +1,195 @@
+package library.management.application.importing;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import library.management.application.events.BooksImportedEvent;
+import library.management.application.models.Book;
+import library.management.application.utils.DatabaseVendor;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Imports whole catalogs. The upload is spooled to a temporary file and read record by record on a
+ * background thread; valid books are written in JDBC batches, one transaction per batch, so memory use
+ * does not depend on the size of the file.
+ */
+@Service
+public class BookImportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookImportService.class);
+    private static final String INSERT_BOOK = "insert into book (title, author, year_of_production) values (?, ?, ?)";
+    private static final int MAX_JOBS = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final TaskExecutor importExecutor;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final DatabaseVendor databaseVendor;
+
+    private final Map<String, BookImportJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BookImportJob> eldest) {
+            return size() > MAX_JOBS && !eldest.getValue().isRunning();
+        }
+    });
+
+    public BookImportService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             Validator validator,
+                             @Qualifier("importExecutor") TaskExecutor importExecutor,
+                             EntityManagerFactory entityManagerFactory,
+                             ApplicationEventPublisher eventPublisher,
+                             Environment environment,
+                             DatabaseVendor databaseVendor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.importExecutor = importExecutor;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = environment.getProperty("library.import.batch_size", Integer.class, 1000);
+        this.databaseVendor = databaseVendor;
+    }
+
+    public BookImportJob start(MultipartFile file, BookImportFormat format) throws IOException {
+        Path upload = Files.createTempFile("book-import-", format.getExtension());
+        file.transferTo(upload);
+
+        BookImportJob job = new BookImportJob(UUID.randomUUID().toString(), file.getOriginalFilename(),
+                Files.size(upload));
+        int lastBookId = jdbcTemplate.queryForObject("select coalesce(max(book_id), 0) from book", Integer.class);
+        jobs.put(job.getId(), job);
+        try {
+            importExecutor.execute(() -> run(job, upload, format, lastBookId));
+        } catch (TaskRejectedException e) {
+            Files.deleteIfExists(upload);
+            job.fail("Забагато імпортів виконується одночасно, спробуйте пізніше");
+        }
+        return job;
+    }
+
+    public BookImportJob findJob(String id) {
+        return jobs.get(id);
+    }
+
+    private void run(BookImportJob job, Path upload, BookImportFormat format, int lastBookId) {
+        job.start();
+        long startedAt = System.nanoTime();
+
+        try (CountingInputStream in = new CountingInputStream(new BufferedInputStream(Files.newInputStream(upload)));
+             BookRecordReader reader = format.open(in)) {
+            List<Book> batch = new ArrayList<>(batchSize);
+            BookRecord record;
+            while ((record = reader.next()) != null) {
+                Book book = validate(job, record);
+                if (book != null)
+                    batch.add(book);
+                if (batch.size() == batchSize) {
+                    insert(batch);
+                    job.imported(batch.size(), in.getCount());
+                    batch.clear();
+                }
+            }
+            insert(batch);
+            job.imported(batch.size(), in.getCount());
+            job.finish();
+            LOGGER.info("Imported {} books from {} in {} ms, {} rejected", job.getImported(), job.getFileName(),
+                    (System.nanoTime() - startedAt) / 1_000_000, job.getRejected());
+        } catch (Exception e) {
+            LOGGER.error("Import of {} failed after {} books", job.getFileName(), job.getImported(), e);
+            job.fail(e.getMessage());
+        } finally {
+            deleteUpload(upload);
+            if (job.getImported() > 0)
+                afterImport(lastBookId, job.getImported());
+        }
+    }
+
+    private Book validate(BookImportJob job, BookRecord record) {
+        if (record.getError() != null) {
+            job.rejected(record.getPosition(), record.getError());
+            return null;
+        }
+
+        Book book;
+        try {
+            book = record.toBook();
+        } catch (NumberFormatException e) {
+            job.rejected(record.getPosition(), "Рік видання має бути числом");
+            return null;
+        }
+
+        Set<ConstraintViolation<Book>> violations = validator.validate(book);
+        if (!violations.isEmpty()) {
+            job.rejected(record.getPosition(), violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+        return book;
+    }
+
+    private void insert(List<Book> batch) {
+        if (batch.isEmpty())
+            return;
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_BOOK, batch, batch.size(), (statement, book) -> {
+                    statement.setString(1, book.getTitle());
+                    statement.setString(2, book.getAuthor());
+                    statement.setInt(3, book.getYearOfProduction());
+                }));
+    }
+
+    /**
+     * The rows bypassed Hibernate, so cached list queries are dropped and listeners told about the new books
+     * before the PostgreSQL planner statistics are refreshed; a failed ANALYZE only costs plan quality.
+     */
+    private void afterImport(int lastBookId, long count) {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        eventPublisher.publishEvent(new BooksImportedEvent(lastBookId, count));
+        if (!databaseVendor.isPostgresql())
+            return;
+        try {
+            jdbcTemplate.execute("analyze book");
+        } catch (DataAccessException e) {
+            LOGGER.warn("Could not analyze book after import", e);
+        }
+    }
+
+    private static void deleteUpload(Path upload) {
+        try {
+            Files.deleteIfExists(upload);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete {}", upload, e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package library.management.application.importing;
+
+import library.management.application.models.Book;
+
+/**
+ * One raw record of an import file, before the year is parsed and the book is validated.
+ */
+public class BookRecord {
+    private final long position;
+    private final String title;
+    private final String author;
+    private final String year;
+    private final String error;
+
+    public BookRecord(long position, String title, String author, String year) {
+        this(position, title, author, year, null);
+    }
+
+    private BookRecord(long position, String title, String author, String year, String error) {
+        this.position = position;
+        this.title = title;
+        this.author = author;
+        this.year = year;
+        this.error = error;
+    }
+
+    /**
+     * A record the reader could not take apart, reported to the job as rejected with {@code error}.
+     */
+    public static BookRecord rejected(long position, String error) {
+        return new BookRecord(position, null, null, null, error);
+    }
+
+    public Book toBook() {
+        return new Book(trim(title), trim(author), Integer.parseInt(trim(year)));
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
+}
@@ -0,0 +1,11 @@
+package library.management.application.importing;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+public interface BookRecordReader extends Closeable {
+    /**
+     * @return the next record or {@code null} when the input is exhausted
+     */
+    BookRecord next() throws IOException;
+}
@@ -0,0 +1,152 @@
+package library.management.application.importing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads comma separated rows one at a time. Quoted fields may contain commas, doubled quotes and line breaks.
+ * A first row naming the columns (title, author, year) is optional; without it the columns are positional.
+ * A record with an over-long field is rejected; a row running past {@link #MAX_ROW_LENGTH}, usually an
+ * unclosed quote swallowing the lines after it, fails the import instead of buffering the rest of the file.
+ */
+public class CsvBookRecordReader implements BookRecordReader {
+    private static final char DELIMITER = ',';
+    private static final char QUOTE = '"';
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+    private static final int MAX_FIELD_LENGTH = 4 * 1024;
+    private static final int MAX_ROW_LENGTH = 64 * 1024;
+
+    private final BufferedReader reader;
+    private int titleColumn = 0;
+    private int authorColumn = 1;
+    private int yearColumn = 2;
+    private boolean firstRow = true;
+    private long row;
+    private boolean fieldTooLong;
+
+    public CsvBookRecordReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public BookRecord next() throws IOException {
+        List<String> fields;
+        while ((fields = readRow()) != null) {
+            row++;
+            if (firstRow) {
+                firstRow = false;
+                stripByteOrderMark(fields);
+                if (readHeader(fields))
+                    continue;
+            }
+            if (isBlank(fields))
+                continue;
+            if (fieldTooLong)
+                return BookRecord.rejected(row, String.format("Поле довше за %d символів", MAX_FIELD_LENGTH));
+
+            return new BookRecord(row, field(fields, titleColumn), field(fields, authorColumn), field(fields, yearColumn));
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<String> readRow() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean read = false;
+        int length = 0;
+        fieldTooLong = false;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            read = true;
+            if (++length > MAX_ROW_LENGTH)
+                throw new IOException(String.format(
+                        "Запис %d довший за %d символів, можливо, в ньому не закрито лапки", row + 1, MAX_ROW_LENGTH));
+            if (quoted) {
+                if (c == QUOTE) {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == QUOTE) {
+                        append(field, QUOTE);
+                    } else {
+                        quoted = false;
+                        if (next != -1)
+                            reader.reset();
+                    }
+                } else {
+                    append(field, c);
+                }
+            } else if (c == QUOTE) {
+                quoted = true;
+            } else if (c == DELIMITER) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                append(field, c);
+            }
+        }
+
+        if (!read)
+            return null;
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private void append(StringBuilder field, int c) {
+        if (field.length() < MAX_FIELD_LENGTH) {
+            field.append((char) c);
+        } else {
+            fieldTooLong = true;
+        }
+    }
+
+    private boolean readHeader(List<String> fields) {
+        int title = -1;
+        int author = -1;
+        int year = -1;
+        for (int i = 0; i < fields.size(); i++) {
+            String name = fields.get(i).trim().toLowerCase();
+            if (name.equals("title")) {
+                title = i;
+            } else if (name.equals("author")) {
+                author = i;
+            } else if (name.equals("year") || name.equals("year_of_production") || name.equals("yearofproduction")) {
+                year = i;
+            }
+        }
+        if (title < 0 && author < 0 && year < 0)
+            return false;
+
+        titleColumn = title;
+        authorColumn = author;
+        yearColumn = year;
+        return true;
+    }
+
+    private static void stripByteOrderMark(List<String> fields) {
+        String first = fields.get(0);
+        if (!first.isEmpty() && first.charAt(0) == BYTE_ORDER_MARK)
+            fields.set(0, first.substring(1));
+    }
+
+    private static boolean isBlank(List<String> fields) {
+        return fields.stream().allMatch(String::isBlank);
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : null;
+    }
+}
@@ -0,0 +1,70 @@
+package library.management.application.importing;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streams book objects either from a top level array or from a sequence of objects (JSON Lines),
+ * without building a tree of the whole document.
+ */
+public class JsonBookRecordReader implements BookRecordReader {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+    private boolean started;
+    private boolean inArray;
+
+    public JsonBookRecordReader(InputStream in) throws IOException {
+        this.parser = JSON_FACTORY.createParser(in);
+    }
+
+    @Override
+    public BookRecord next() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (!started) {
+            started = true;
+            if (token == JsonToken.START_ARRAY) {
+                inArray = true;
+                token = parser.nextToken();
+            }
+        }
+        if (token == null || (inArray && token == JsonToken.END_ARRAY))
+            return null;
+        if (token != JsonToken.START_OBJECT)
+            throw new JsonParseException(parser, "Expected a book object");
+
+        long line = parser.getCurrentLocation().getLineNr();
+        String title = null;
+        String author = null;
+        String year = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            switch (name) {
+                case "title":
+                    title = parser.getValueAsString();
+                    break;
+                case "author":
+                    author = parser.getValueAsString();
+                    break;
+                case "year":
+                case "yearOfProduction":
+                    year = parser.getValueAsString();
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return new BookRecord(line, title, author, year);
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
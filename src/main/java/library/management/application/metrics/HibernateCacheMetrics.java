@@ -0,0 +1,82 @@
+package library.management.application.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes second-level and query cache hit/miss counters per region.
+ * Nothing is registered unless hibernate.generate_statistics is on.
+ */
+public class HibernateCacheMetrics implements MeterBinder {
+    private final SessionFactory sessionFactory;
+
+    public HibernateCacheMetrics(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = sessionFactory.getStatistics();
+        if (!statistics.isStatisticsEnabled())
+            return;
+
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            bindRegion(registry, statistics, region);
+        }
+
+        FunctionCounter.builder("hibernate.query.cache.requests", statistics, Statistics::getQueryCacheHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("hibernate.query.cache.requests", statistics, Statistics::getQueryCacheMissCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("hibernate.query.cache.puts", statistics, Statistics::getQueryCachePutCount)
+                .register(registry);
+        Gauge.builder("hibernate.query.cache.hit.ratio", statistics,
+                        s -> ratio(s.getQueryCacheHitCount(), s.getQueryCacheMissCount()))
+                .register(registry);
+    }
+
+    private void bindRegion(MeterRegistry registry, Statistics statistics, String region) {
+        counter(registry, statistics, region, "hit", CacheRegionStatistics::getHitCount);
+        counter(registry, statistics, region, "miss", CacheRegionStatistics::getMissCount);
+        FunctionCounter.builder("hibernate.second.level.cache.puts", statistics,
+                        s -> regionValue(s, region, CacheRegionStatistics::getPutCount))
+                .tag("region", region)
+                .register(registry);
+        Gauge.builder("hibernate.second.level.cache.hit.ratio", statistics,
+                        s -> {
+                            CacheRegionStatistics stats = s.getDomainDataRegionStatistics(region);
+                            return stats == null ? 0 : ratio(stats.getHitCount(), stats.getMissCount());
+                        })
+                .tag("region", region)
+                .register(registry);
+    }
+
+    private void counter(MeterRegistry registry, Statistics statistics, String region, String result,
+                         ToDoubleFunction<CacheRegionStatistics> value) {
+        FunctionCounter.builder("hibernate.second.level.cache.requests", statistics,
+                        s -> regionValue(s, region, value))
+                .tag("region", region)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static double regionValue(Statistics statistics, String region,
+                                      ToDoubleFunction<CacheRegionStatistics> value) {
+        CacheRegionStatistics stats = statistics.getDomainDataRegionStatistics(region);
+        return stats == null ? 0 : value.applyAsDouble(stats);
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,78 @@
+package library.management.application.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Database work done while handling the current request. Bound to the request thread by
+ * {@link RequestMetricsInterceptor}; work on other threads (imports, startup) is not counted.
+ */
+public final class RequestMetrics {
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long jdbcNanos;
+    private int transactions;
+    private final Map<String, Integer> selects = new HashMap<>();
+    private String mostRepeatedSelect;
+    private int mostRepeatedCount;
+
+    static RequestMetrics begin() {
+        RequestMetrics metrics = new RequestMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    static RequestMetrics end() {
+        RequestMetrics metrics = CURRENT.get();
+        CURRENT.remove();
+        return metrics;
+    }
+
+    static RequestMetrics current() {
+        return CURRENT.get();
+    }
+
+    void statementExecuted(long nanos) {
+        statements++;
+        jdbcNanos += nanos;
+    }
+
+    public static void transactionCompleted() {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics != null)
+            metrics.transactions++;
+    }
+
+    /**
+     * Hibernate renders the same SQL string for the same query, so repeats of one string within a
+     * request are the same query run with different parameters.
+     */
+    void selectPrepared(String sql) {
+        int count = selects.merge(sql, 1, Integer::sum);
+        if (count > mostRepeatedCount) {
+            mostRepeatedCount = count;
+            mostRepeatedSelect = sql;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public int getTransactions() {
+        return transactions;
+    }
+
+    public String getMostRepeatedSelect() {
+        return mostRepeatedSelect;
+    }
+
+    public int getMostRepeatedCount() {
+        return mostRepeatedCount;
+    }
+}
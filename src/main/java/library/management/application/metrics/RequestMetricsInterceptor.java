@@ -0,0 +1,137 @@
+package library.management.application.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every controller method by its URI pattern and records the database work it caused:
+ * statements executed, time spent in JDBC and transactions. A request that runs the same select
+ * {@code nPlusOneThreshold} times or more is counted as an N+1 and logged once per endpoint and query.
+ *
+ * <p>A sample of requests is also written to the {@code library.requests} logger as one key=value line;
+ * slow, failed and N+1 requests are always written.
+ */
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestMetricsInterceptor.class);
+    private static final Logger REQUEST_LOG = LoggerFactory.getLogger("library.requests");
+    private static final String START_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".start";
+
+    private final MeterRegistry registry;
+    private final int nPlusOneThreshold;
+    private final double logSampleRate;
+    private final long slowRequestNanos;
+    private final Set<String> reportedRepeats = ConcurrentHashMap.newKeySet();
+
+    public RequestMetricsInterceptor(MeterRegistry registry, int nPlusOneThreshold,
+                                     double logSampleRate, long slowRequestMillis) {
+        this.registry = registry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.logSampleRate = logSampleRate;
+        this.slowRequestNanos = TimeUnit.MILLISECONDS.toNanos(slowRequestMillis);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+            RequestMetrics.begin();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        RequestMetrics metrics = RequestMetrics.end();
+        if (start == null || metrics == null)
+            return;
+
+        long duration = System.nanoTime() - (long) start;
+        String method = request.getMethod();
+        String uri = uri(request);
+        Timer.builder("http.server.requests")
+                .description("Controller method execution, view rendering included")
+                .tag("method", method)
+                .tag("uri", uri)
+                .tag("status", String.valueOf(response.getStatus()))
+                .tag("exception", ex == null ? "none" : ex.getClass().getSimpleName())
+                .register(registry)
+                .record(duration, TimeUnit.NANOSECONDS);
+
+        DistributionSummary.builder("library.request.sql.statements")
+                .description("JDBC statements executed per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(registry)
+                .record(metrics.getStatements());
+        Timer.builder("library.request.jdbc")
+                .description("Time spent executing JDBC statements per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(registry)
+                .record(metrics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("library.request.transactions")
+                .description("Transactions per request")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(registry)
+                .record(metrics.getTransactions());
+
+        boolean nPlusOne = metrics.getMostRepeatedCount() >= nPlusOneThreshold;
+        if (nPlusOne) {
+            Counter.builder("library.request.n_plus_one")
+                    .description("Requests that ran the same select repeatedly")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .register(registry)
+                    .increment();
+            if (reportedRepeats.add(method + " " + uri + " " + metrics.getMostRepeatedSelect())) {
+                LOGGER.warn("{} {} ran the same select {} times: {}", method, uri,
+                        metrics.getMostRepeatedCount(), metrics.getMostRepeatedSelect());
+            }
+        }
+
+        String reason = logReason(duration, response.getStatus(), ex, nPlusOne);
+        if (reason != null && REQUEST_LOG.isInfoEnabled()) {
+            REQUEST_LOG.info("method={} uri={} path={} status={} duration_ms={} sql={} jdbc_ms={} tx={} logged={}",
+                    method, uri, request.getRequestURI(), response.getStatus(), millis(duration),
+                    metrics.getStatements(), millis(metrics.getJdbcNanos()), metrics.getTransactions(), reason);
+        }
+    }
+
+    private String logReason(long duration, int status, Exception ex, boolean nPlusOne) {
+        if (ex != null || status >= 500)
+            return "error";
+        if (duration >= slowRequestNanos)
+            return "slow";
+        if (nPlusOne)
+            return "n_plus_one";
+        if (logSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < logSampleRate)
+            return "sample";
+        return null;
+    }
+
+    private static String millis(long nanos) {
+        return String.valueOf(nanos / 10_000 / 100.0);
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "UNKNOWN" : pattern.toString();
+    }
+}
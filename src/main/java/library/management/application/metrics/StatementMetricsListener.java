@@ -0,0 +1,51 @@
+package library.management.application.metrics;
+
+import org.hibernate.SessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Times every JDBC execution of a session for the request being handled. Registered through
+ * hibernate.session.events.auto, so Hibernate creates one per session.
+ */
+public class StatementMetricsListener implements SessionEventListener {
+    private long executeStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        executed();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        executed();
+    }
+
+    private void executed() {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null)
+            metrics.statementExecuted(System.nanoTime() - executeStart);
+    }
+
+    /**
+     * Sees the SQL of every statement before it is prepared and counts the selects for N+1 detection.
+     */
+    public static class SelectInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            RequestMetrics metrics = RequestMetrics.current();
+            if (metrics != null && sql.regionMatches(true, 0, "select", 0, 6))
+                metrics.selectPrepared(sql);
+            return sql;
+        }
+    }
+}
@@ -4,13 +4,17 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.Date;
 
 @Entity
-@Table
+@NamedEntityGraph(name = "Book.assignedPerson", attributeNodes = @NamedAttributeNode("assignedPerson"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
+@DynamicUpdate
 public class Book {
     @Id
     @Column(name = "book_id")
@@ -38,12 +42,13 @@ public class Book {
     @Temporal(TemporalType.TIMESTAMP)
     private Date takenAt;
 
+    @Version
+    @Column(name = "version")
+    private int version;
+
     @Transient
     private boolean expired;
 
-
-    private static final Logger LOGGER = LoggerFactory.getLogger(Book.class);
-
     public Book() {
     }
 
@@ -108,10 +113,17 @@ public class Book {
         this.takenAt = takenAt;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public boolean isExpired() {
       /* if((takenAt.getTime() - 1209600000) <= 0)
            expired = true;*/
-        LOGGER.info("get expired date");
         return expired;
     }
 
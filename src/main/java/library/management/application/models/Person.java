@@ -5,13 +5,22 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "Person")
+@Table(name = "Person", uniqueConstraints = @UniqueConstraint(name = Person.FULL_NAME_CONSTRAINT, columnNames = "full_name"))
+@NamedEntityGraph(name = "Person.books", attributeNodes = @NamedAttributeNode("books"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "person")
+@DynamicUpdate
 public class Person {
+    public static final String FULL_NAME_CONSTRAINT = "person_full_name_key";
+
     @Id
     @Column(name = "person_id")
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,6 +35,10 @@ public class Person {
     @Column(name = "year_of_birth")
     private int yearOfBirth;
 
+    @Version
+    @Column(name = "version")
+    private int version;
+
     @OneToMany(mappedBy = "assignedPerson")
     private List<Book> books;
 
@@ -67,6 +80,14 @@ public class Person {
         this.yearOfBirth = yearOfBirth;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public List<Book> getBooks() {
         return books;
     }
@@ -0,0 +1,62 @@
+package library.management.application.repositories;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import library.management.application.dto.BookSearchCriteria;
+import library.management.application.models.Book;
+import library.management.application.search.SearchText;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+public final class BookSpecifications {
+
+    private BookSpecifications() {
+    }
+
+    public static Specification<Book> matching(BookSearchCriteria criteria) {
+        Specification<Book> specification = Specification.where(null);
+        if (criteria.getTitle() != null && !criteria.getTitle().isBlank())
+            specification = specification.and(titleStartsWith(criteria.getTitle().trim()));
+        if (criteria.getAuthor() != null && !criteria.getAuthor().isBlank())
+            specification = specification.and(authorStartsWith(criteria.getAuthor().trim()));
+        if (criteria.getYear() != null)
+            specification = specification.and(yearOfProduction(criteria.getYear()));
+        if (criteria.getAvailable() != null)
+            specification = specification.and(available(criteria.getAvailable()));
+        return specification;
+    }
+
+    public static Specification<Book> titleStartsWith(String title) {
+        return (root, query, cb) -> foldedStartsWith(cb, root.get("title"), title);
+    }
+
+    public static Specification<Book> authorStartsWith(String author) {
+        return (root, query, cb) -> foldedStartsWith(cb, root.get("author"), author);
+    }
+
+    public static Specification<Book> yearOfProduction(int year) {
+        return (root, query, cb) -> cb.equal(root.get("yearOfProduction"), year);
+    }
+
+    public static Specification<Book> available(boolean available) {
+        return (root, query, cb) -> available
+                ? cb.isNull(root.get("assignedPerson"))
+                : cb.isNotNull(root.get("assignedPerson"));
+    }
+
+    public static Specification<Book> idIn(Collection<Integer> ids) {
+        return (root, query, cb) -> root.get("bookId").in(ids);
+    }
+
+    /**
+     * search_fold(column) LIKE search_fold(value) || '%', served by the trigram indexes from
+     * db/migration/postgresql/V2__search.sql.
+     */
+    static Predicate foldedStartsWith(CriteriaBuilder cb, Expression<String> column, String value) {
+        Expression<String> pattern = cb.concat(
+                cb.function("search_fold", String.class, cb.literal(SearchText.escapeLike(value))), "%");
+        return cb.like(cb.function("search_fold", String.class, column), pattern, '\\');
+    }
+}
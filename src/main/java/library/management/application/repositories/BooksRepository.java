@@ -1,18 +1,155 @@
 package library.management.application.repositories;
 
+import jakarta.persistence.QueryHint;
+import library.management.application.dto.BookListItem;
 import library.management.application.models.Book;
+import library.management.application.models.Person;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BooksRepository extends JpaRepository<Book, Integer> {
-    List<Book> findByTitleStartingWith(String startingWith);
-    List<Book> findByAuthorStartingWith(String author);
-    List<Book> findByYearOfProduction(int yearOfProduction);
-    List<Book> findByAuthorStartingWithAndTitleStartingWith(String author, String title);
-    List<Book> findByTitleStartingWithAndYearOfProduction(String title, int yearOfProduction);
-    List<Book> findByAuthorStartingWithAndYearOfProduction(String author, int yearOfProduction);
-    List<Book> findByTitleStartingWithAndAuthorStartingWithAndYearOfProduction(String title, String author, int yearOfProduction);
+public interface BooksRepository extends JpaRepository<Book, Integer>, JpaSpecificationExecutor<Book>,
+        BooksSearchRepository {
+    String LIST_ITEM = "select new library.management.application.dto.BookListItem(" +
+            "b.bookId, b.title, b.author, b.yearOfProduction) from Book b";
+
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    Page<Book> findAll(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query(value = LIST_ITEM, countQuery = "select count(b) from Book b")
+    Page<BookListItem> findListItems(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query(LIST_ITEM + " where b.bookId > :id order by b.bookId")
+    List<BookListItem> findNextById(@Param("id") int id, Pageable limit);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query(LIST_ITEM + " where b.bookId < :id order by b.bookId desc")
+    List<BookListItem> findPreviousById(@Param("id") int id, Pageable limit);
+
+    // the leading bound on the year alone is redundant, but it is what lets the planner start a
+    // range scan of book_year_idx at the cursor instead of filtering the index from its first entry
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query(LIST_ITEM + " where b.yearOfProduction >= :year " +
+            "and (b.yearOfProduction > :year or b.bookId > :id) " +
+            "order by b.yearOfProduction, b.bookId")
+    List<BookListItem> findNextByYear(@Param("year") int year, @Param("id") int id, Pageable limit);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query(LIST_ITEM + " where b.yearOfProduction <= :year " +
+            "and (b.yearOfProduction < :year or b.bookId < :id) " +
+            "order by b.yearOfProduction desc, b.bookId desc")
+    List<BookListItem> findPreviousByYear(@Param("year") int year, @Param("id") int id, Pageable limit);
+
+    @Query("select b.bookId, b.title, b.author from Book b where b.bookId > :id order by b.bookId")
+    List<Object[]> findSearchTextAfter(@Param("id") int id, Pageable limit);
+
+    // PostgreSQL only, the services count exactly on H2
+    @Query(value = "select cast(greatest(reltuples, 0) as bigint) from pg_class where relname = 'book'",
+            nativeQuery = true)
+    long estimateCount();
+
+    @EntityGraph("Book.assignedPerson")
+    Optional<Book> findWithOwnerByBookId(int id);
+
+    String SEARCH_CONDITION = "search_fold(b.title) %> search_fold(:q) " +
+            "or search_fold(b.author) %> search_fold(:q) " +
+            "or search_fold(b.title) like '%' || search_fold(:pattern) || '%' escape '\\' " +
+            "or search_fold(b.author) like '%' || search_fold(:pattern) || '%' escape '\\'";
+
+    @Query(value = "select b.book_id from book b where " + SEARCH_CONDITION +
+            " order by greatest(word_similarity(search_fold(:q), search_fold(b.title)), " +
+            "word_similarity(search_fold(:q), search_fold(b.author))) desc, b.book_id",
+            countQuery = "select count(*) from book b where " + SEARCH_CONDITION,
+            nativeQuery = true)
+    Page<Integer> searchIds(@Param("q") String query, @Param("pattern") String escapedQuery, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheMode", value = "IGNORE")
+    })
+    @Query("select b from Book b left join fetch b.assignedPerson order by b.bookId")
+    Stream<Book> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheMode", value = "IGNORE")
+    })
+    @Query("select b from Book b join fetch b.assignedPerson order by b.takenAt, b.bookId")
+    Stream<Book> streamLoans();
+
+    /**
+     * (book_id, person_id, taken_at) of the requested books; ids that do not exist are simply missing.
+     */
+    @Query(value = "select book_id, person_id, taken_at from book where book_id in (:ids)", nativeQuery = true)
+    List<Object[]> findLoanStates(@Param("ids") Collection<Integer> ids);
+
+    // the version is bumped by hand: Hibernate 6.4 adds it to the cached "update versioned" tree on
+    // every translation, which is not thread-safe
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.version = b.version + 1, " +
+            "b.title = :title, b.author = :author, b.yearOfProduction = :year " +
+            "where b.bookId = :id and b.version = :version")
+    int updateDetails(@Param("id") int id, @Param("version") int version, @Param("title") String title,
+                      @Param("author") String author, @Param("year") int yearOfProduction);
+
+    // Circulation: conditional UPDATEs that only touch books still in the state the caller expects.
+    // PostgreSQL runs each as one statement whose RETURNING clause names the rows it changed; H2 has no
+    // RETURNING and falls back to one JPQL update per book (see BooksService.updateLoans).
+
+    @Query(value = "update book set person_id = :personId, taken_at = :takenAt, version = version + 1 " +
+            "where book_id in (:ids) and person_id is null returning book_id", nativeQuery = true)
+    List<Integer> assignReturning(@Param("ids") Collection<Integer> ids, @Param("personId") int personId,
+                                  @Param("takenAt") Date takenAt);
+
+    @Query(value = "update book set person_id = null, taken_at = null, version = version + 1 " +
+            "where book_id in (:ids) and person_id = :owner returning book_id", nativeQuery = true)
+    List<Integer> releaseReturning(@Param("ids") Collection<Integer> ids, @Param("owner") int owner);
+
+    @Query(value = "update book set taken_at = :takenAt, version = version + 1 " +
+            "where book_id in (:ids) and person_id = :owner returning book_id", nativeQuery = true)
+    List<Integer> extendReturning(@Param("ids") Collection<Integer> ids, @Param("owner") int owner,
+                                  @Param("takenAt") Date takenAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.version = b.version + 1, b.assignedPerson = :person, b.takenAt = :takenAt " +
+            "where b.bookId = :id and b.assignedPerson is null")
+    int assign(@Param("id") int id, @Param("person") Person person, @Param("takenAt") Date takenAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.version = b.version + 1, b.assignedPerson = null, b.takenAt = null " +
+            "where b.bookId = :id and b.assignedPerson.personId = :owner")
+    int release(@Param("id") int id, @Param("owner") int owner);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.version = b.version + 1, b.takenAt = :takenAt " +
+            "where b.bookId = :id and b.assignedPerson.personId = :owner")
+    int extend(@Param("id") int id, @Param("owner") int owner, @Param("takenAt") Date takenAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.version = b.version + 1, b.assignedPerson = null, b.takenAt = null " +
+            "where b.assignedPerson.personId = :personId")
+    int releaseAllOf(@Param("personId") int personId);
+
+    @EntityGraph("Book.assignedPerson")
+    @Query("select b from Book b where b.takenAt < :threshold")
+    Page<Book> findOverdue(@Param("threshold") Date threshold, Pageable pageable);
 }
@@ -0,0 +1,14 @@
+package library.management.application.repositories;
+
+import library.management.application.dto.BookSearchRow;
+import library.management.application.models.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface BooksSearchRepository {
+    /**
+     * One paged select of only the search page columns (book plus owner name via a left join).
+     */
+    Page<BookSearchRow> findRows(Specification<Book> specification, Pageable pageable);
+}
@@ -0,0 +1,54 @@
+package library.management.application.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import library.management.application.dto.BookSearchRow;
+import library.management.application.models.Book;
+import library.management.application.models.Person;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+public class BooksSearchRepositoryImpl implements BooksSearchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<BookSearchRow> findRows(Specification<Book> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<BookSearchRow> query = cb.createQuery(BookSearchRow.class);
+        Root<Book> book = query.from(Book.class);
+        Join<Book, Person> owner = book.join("assignedPerson", JoinType.LEFT);
+        query.select(cb.construct(BookSearchRow.class,
+                book.get("bookId"), book.get("title"), book.get("author"), book.get("yearOfProduction"),
+                owner.get("personId"), owner.get("fullName")));
+        query.where(specification.toPredicate(book, query, cb));
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), book, cb));
+
+        List<BookSearchRow> rows = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(rows, pageable, () -> count(specification));
+    }
+
+    private long count(Specification<Book> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Book> book = query.from(Book.class);
+        query.select(cb.count(book));
+        query.where(specification.toPredicate(book, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -1,18 +1,98 @@
 package library.management.application.repositories;
 
+import jakarta.persistence.QueryHint;
+import library.management.application.dto.PersonListItem;
 import library.management.application.models.Person;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface PeopleRepository extends JpaRepository<Person, Integer> {
+public interface PeopleRepository extends JpaRepository<Person, Integer>, JpaSpecificationExecutor<Person>,
+        PeopleSearchRepository {
+    String LIST_ITEM = "select new library.management.application.dto.PersonListItem(" +
+            "p.personId, p.fullName, p.yearOfBirth) from Person p";
+
+    @Override
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    Page<Person> findAll(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query(value = LIST_ITEM, countQuery = "select count(p) from Person p")
+    Page<PersonListItem> findListItems(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query(LIST_ITEM + " where p.personId > :id order by p.personId")
+    List<PersonListItem> findNextById(@Param("id") int id, Pageable limit);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query(LIST_ITEM + " where p.personId < :id order by p.personId desc")
+    List<PersonListItem> findPreviousById(@Param("id") int id, Pageable limit);
+
+    // redundant leading bound on the name, see BooksRepository.findNextByYear
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query(LIST_ITEM + " where p.fullName >= :name " +
+            "and (p.fullName > :name or p.personId > :id) " +
+            "order by p.fullName, p.personId")
+    List<PersonListItem> findNextByName(@Param("name") String name, @Param("id") int id, Pageable limit);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Query(LIST_ITEM + " where p.fullName <= :name " +
+            "and (p.fullName < :name or p.personId < :id) " +
+            "order by p.fullName desc, p.personId desc")
+    List<PersonListItem> findPreviousByName(@Param("name") String name, @Param("id") int id, Pageable limit);
+
+    @Query("select p.personId, p.fullName from Person p where p.personId > :id order by p.personId")
+    List<Object[]> findSearchTextAfter(@Param("id") int id, Pageable limit);
+
+    // PostgreSQL only, see BooksRepository.estimateCount
+    @Query(value = "select cast(greatest(reltuples, 0) as bigint) from pg_class where relname = 'person'",
+            nativeQuery = true)
+    long estimateCount();
+
+    @Query(LIST_ITEM)
+    Slice<PersonListItem> findListItemsBy(Pageable pageable);
+
+    @EntityGraph("Person.books")
+    Optional<Person> findWithBooksByPersonId(int personId);
+
     Optional<Person> findByFullName(String fullName);
-    List<Person> findByFullNameStartingWith(String startingWith);
-    List<Person> findByYearOfBirth(int yearOfBirth);
-    List<Person> findByFullNameStartingWithAndYearOfBirth(String fullName, int yearOfBirth);
-    List<Person> findByFullNameContaining(String name);
-    List<Person> findByFullNameContainingAndYearOfBirth(String name, int year);
+
+    boolean existsByFullName(String fullName);
+
+    // the version is bumped by hand, see BooksRepository.updateDetails
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Person p set p.version = p.version + 1, p.fullName = :fullName, p.yearOfBirth = :year " +
+            "where p.personId = :id and p.version = :version")
+    int updateDetails(@Param("id") int id, @Param("version") int version, @Param("fullName") String fullName,
+                      @Param("year") int yearOfBirth);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheMode", value = "IGNORE")
+    })
+    @Query("select p from Person p order by p.personId")
+    Stream<Person> streamAll();
+
+    String SEARCH_CONDITION = "search_fold(p.full_name) %> search_fold(:q) " +
+            "or search_fold(p.full_name) like '%' || search_fold(:pattern) || '%' escape '\\'";
+
+    @Query(value = "select p.person_id from person p where " + SEARCH_CONDITION +
+            " order by word_similarity(search_fold(:q), search_fold(p.full_name)) desc, p.person_id",
+            countQuery = "select count(*) from person p where " + SEARCH_CONDITION,
+            nativeQuery = true)
+    Page<Integer> searchIds(@Param("q") String query, @Param("pattern") String escapedQuery, Pageable pageable);
 }
@@ -0,0 +1,20 @@
+package library.management.application.repositories;
+
+import library.management.application.dto.PersonListItem;
+import library.management.application.models.Person;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface PeopleSearchRepository {
+    /**
+     * One paged select of only the columns the reader lists render.
+     */
+    Page<PersonListItem> findRows(Specification<Person> specification, Pageable pageable);
+
+    /**
+     * Like {@link #findRows}, without the count query.
+     */
+    Slice<PersonListItem> findRowSlice(Specification<Person> specification, Pageable pageable);
+}
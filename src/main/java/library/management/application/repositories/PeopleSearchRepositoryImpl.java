@@ -0,0 +1,62 @@
+package library.management.application.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import library.management.application.dto.PersonListItem;
+import library.management.application.models.Person;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+public class PeopleSearchRepositoryImpl implements PeopleSearchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<PersonListItem> findRows(Specification<Person> specification, Pageable pageable) {
+        List<PersonListItem> rows = findRows(specification, pageable, pageable.getPageSize());
+        return PageableExecutionUtils.getPage(rows, pageable, () -> count(specification));
+    }
+
+    @Override
+    public Slice<PersonListItem> findRowSlice(Specification<Person> specification, Pageable pageable) {
+        // one row more than the page tells whether a next page exists
+        List<PersonListItem> rows = findRows(specification, pageable, pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    private List<PersonListItem> findRows(Specification<Person> specification, Pageable pageable, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<PersonListItem> query = cb.createQuery(PersonListItem.class);
+        Root<Person> person = query.from(Person.class);
+        query.select(cb.construct(PersonListItem.class,
+                person.get("personId"), person.get("fullName"), person.get("yearOfBirth")));
+        query.where(specification.toPredicate(person, query, cb));
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), person, cb));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private long count(Specification<Person> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Person> person = query.from(Person.class);
+        query.select(cb.count(person));
+        query.where(specification.toPredicate(person, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,57 @@
+package library.management.application.repositories;
+
+import jakarta.persistence.criteria.Expression;
+import library.management.application.dto.PersonSearchCriteria;
+import library.management.application.models.Person;
+import library.management.application.search.SearchText;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+public final class PersonSpecifications {
+
+    private PersonSpecifications() {
+    }
+
+    public static Specification<Person> matching(PersonSearchCriteria criteria) {
+        Specification<Person> specification = Specification.where(null);
+        if (criteria.getName() != null && !criteria.getName().isBlank())
+            specification = specification.and(fullNameContains(criteria.getName().trim()));
+        if (criteria.getYear() != null)
+            specification = specification.and(yearOfBirth(criteria.getYear()));
+        return specification;
+    }
+
+    /**
+     * search_fold(full_name) LIKE '%' || search_fold(name) || '%', served by the trigram index.
+     */
+    public static Specification<Person> fullNameContains(String name) {
+        return (root, query, cb) -> {
+            Expression<String> folded = cb.function("search_fold", String.class,
+                    cb.literal(SearchText.escapeLike(name)));
+            return cb.like(cb.function("search_fold", String.class, root.get("fullName")),
+                    cb.concat(cb.concat("%", folded), "%"), '\\');
+        };
+    }
+
+    /**
+     * search_fold(full_name) LIKE search_fold(prefix) || '%': the trigram index serves it under any
+     * collation, which a plain LIKE on full_name does not.
+     */
+    public static Specification<Person> fullNameStartsWith(String prefix) {
+        return (root, query, cb) -> {
+            Expression<String> folded = cb.function("search_fold", String.class,
+                    cb.literal(SearchText.escapeLike(prefix)));
+            return cb.like(cb.function("search_fold", String.class, root.get("fullName")),
+                    cb.concat(folded, "%"), '\\');
+        };
+    }
+
+    public static Specification<Person> yearOfBirth(int year) {
+        return (root, query, cb) -> cb.equal(root.get("yearOfBirth"), year);
+    }
+
+    public static Specification<Person> idIn(Collection<Integer> ids) {
+        return (root, query, cb) -> root.get("personId").in(ids);
+    }
+}
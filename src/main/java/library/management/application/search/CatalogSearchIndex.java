@@ -0,0 +1,135 @@
+package library.management.application.search;
+
+import library.management.application.events.BookChangedEvent;
+import library.management.application.events.BooksImportedEvent;
+import library.management.application.events.CatalogChangedEvent;
+import library.management.application.events.PersonChangedEvent;
+import library.management.application.repositories.BooksRepository;
+import library.management.application.repositories.PeopleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index over book titles/authors and reader names. Built once at startup and
+ * kept current from committed changes, so search never asks the database for candidates.
+ */
+@Component
+public class CatalogSearchIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogSearchIndex.class);
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    private final BooksRepository booksRepository;
+    private final PeopleRepository peopleRepository;
+    private final boolean enabled;
+
+    private final InvertedIndex books = new InvertedIndex();
+    private final InvertedIndex people = new InvertedIndex();
+    private volatile boolean ready;
+
+    @Autowired
+    public CatalogSearchIndex(BooksRepository booksRepository,
+                              PeopleRepository peopleRepository,
+                              Environment environment) {
+        this.booksRepository = booksRepository;
+        this.peopleRepository = peopleRepository;
+        this.enabled = environment.getProperty("library.search.in_memory_index", Boolean.class, true);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void rebuild() {
+        if (!enabled || ready)
+            return;
+
+        long start = System.nanoTime();
+        CompletableFuture<Void> booksLoad = CompletableFuture.runAsync(
+                () -> load(books, Integer.MIN_VALUE, booksRepository::findSearchTextAfter));
+        CompletableFuture<Void> peopleLoad = CompletableFuture.runAsync(
+                () -> load(people, Integer.MIN_VALUE, peopleRepository::findSearchTextAfter));
+        CompletableFuture.allOf(booksLoad, peopleLoad).join();
+        ready = true;
+
+        LOGGER.info("Search index built in {} ms: {} books, {} readers",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), books.size(), people.size());
+    }
+
+    public int[] searchBooks(String query, int limit) {
+        return books.search(query, limit);
+    }
+
+    public int[] searchPeople(String query, int limit) {
+        return people.search(query, limit);
+    }
+
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (!enabled)
+            return;
+        if (event.getChange() == CatalogChangedEvent.Change.DELETED) {
+            books.remove(event.getBookId());
+        } else {
+            books.put(new InvertedIndex.Document(event.getBookId(), event.getTitle(), event.getAuthor()));
+        }
+    }
+
+    @EventListener
+    public void onBooksImported(BooksImportedEvent event) {
+        if (!enabled)
+            return;
+        load(books, event.getAfterBookId(), booksRepository::findSearchTextAfter);
+    }
+
+    @TransactionalEventListener
+    public void onPersonChanged(PersonChangedEvent event) {
+        if (!enabled)
+            return;
+        if (event.getChange() == CatalogChangedEvent.Change.DELETED) {
+            people.remove(event.getPersonId());
+        } else {
+            people.put(new InvertedIndex.Document(event.getPersonId(), event.getFullName()));
+        }
+    }
+
+    /**
+     * Pages through the table by id; each batch is tokenized in parallel while the
+     * database is not involved.
+     */
+    private void load(InvertedIndex index, int afterId, BiFunction<Integer, PageRequest, List<Object[]>> nextBatch) {
+        int lastId = afterId;
+        List<Object[]> rows;
+        do {
+            rows = nextBatch.apply(lastId, PageRequest.ofSize(LOAD_BATCH_SIZE));
+            List<InvertedIndex.Document> documents = rows.parallelStream()
+                    .map(CatalogSearchIndex::toDocument)
+                    .collect(Collectors.toList());
+            index.putAll(documents);
+            if (!rows.isEmpty())
+                lastId = (Integer) rows.get(rows.size() - 1)[0];
+        } while (rows.size() == LOAD_BATCH_SIZE);
+        index.compact();
+    }
+
+    private static InvertedIndex.Document toDocument(Object[] row) {
+        String[] fields = new String[row.length - 1];
+        for (int i = 1; i < row.length; i++) {
+            fields[i - 1] = (String) row[i];
+        }
+        return new InvertedIndex.Document((Integer) row[0], fields);
+    }
+}
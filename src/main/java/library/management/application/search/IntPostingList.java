@@ -0,0 +1,108 @@
+package library.management.application.search;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sorted set of ints backed by a primitive array.
+ */
+final class IntPostingList {
+    private static final int[] EMPTY = new int[0];
+
+    private int[] values = EMPTY;
+    private int size;
+
+    boolean add(int value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0)
+            return false;
+
+        int insertAt = -index - 1;
+        if (size == values.length)
+            values = Arrays.copyOf(values, Math.max(4, size + (size >> 1)));
+        System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+        values[insertAt] = value;
+        size++;
+        return true;
+    }
+
+    boolean remove(int value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0)
+            return false;
+
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    void trimToSize() {
+        if (values.length != size)
+            values = Arrays.copyOf(values, size);
+    }
+
+    static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                result[n++] = a[i++];
+            } else if (a[i] > b[j]) {
+                result[n++] = b[j++];
+            } else {
+                result[n++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length)
+            result[n++] = a[i++];
+        while (j < b.length)
+            result[n++] = b[j++];
+        return Arrays.copyOf(result, n);
+    }
+
+    static int[] unionAll(List<int[]> arrays) {
+        int total = 0;
+        for (int[] array : arrays)
+            total += array.length;
+
+        int[] all = new int[total];
+        int n = 0;
+        for (int[] array : arrays) {
+            System.arraycopy(array, 0, all, n, array.length);
+            n += array.length;
+        }
+        Arrays.sort(all);
+
+        int distinct = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i == 0 || all[i] != all[i - 1])
+                all[distinct++] = all[i];
+        }
+        return Arrays.copyOf(all, distinct);
+    }
+
+    static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+}
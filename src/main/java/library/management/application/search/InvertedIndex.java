@@ -0,0 +1,254 @@
+package library.management.application.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Term dictionary with int posting lists of document ids. Terms are kept sorted for
+ * prefix lookups and additionally indexed by trigram for infix lookups.
+ */
+public final class InvertedIndex {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<String, Term> dictionary = new TreeMap<>();
+    private final List<Term> termsByOrdinal = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Map<String, IntPostingList> trigrams = new HashMap<>();
+    // term ordinals of every indexed document, by document id; ids are dense database keys
+    private int[][] documentTerms = new int[0][];
+    private int documentCount;
+
+    private static final class Term {
+        private final String text;
+        private final int ordinal;
+        private final IntPostingList postings = new IntPostingList();
+
+        private Term(String text, int ordinal) {
+            this.text = text;
+            this.ordinal = ordinal;
+        }
+    }
+
+    public static final class Document {
+        private final int id;
+        private final String[] terms;
+
+        public Document(int id, String... fields) {
+            if (id < 0)
+                throw new IllegalArgumentException("Document id must not be negative: " + id);
+            LinkedHashSet<String> distinct = new LinkedHashSet<>();
+            for (String field : fields) {
+                distinct.addAll(SearchText.tokens(field));
+            }
+            this.id = id;
+            this.terms = distinct.toArray(new String[0]);
+        }
+    }
+
+    public void put(Document document) {
+        lock.writeLock().lock();
+        try {
+            putUnlocked(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putAll(List<Document> documents) {
+        lock.writeLock().lock();
+        try {
+            documents.forEach(this::putUnlocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Releases the spare capacity of posting lists after a bulk load.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            dictionary.values().forEach(term -> term.postings.trimToSize());
+            trigrams.values().forEach(IntPostingList::trimToSize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of documents that match every query word as a prefix or a substring of one of
+     * their terms. Documents with more prefix matches come first, ties are ordered by id.
+     */
+    public int[] search(String query, int limit) {
+        List<String> tokens = SearchText.tokens(query);
+        if (tokens.isEmpty())
+            return new int[0];
+
+        lock.readLock().lock();
+        try {
+            int[] matches = null;
+            int[][] prefixMatches = new int[tokens.size()][];
+            for (int t = 0; t < tokens.size(); t++) {
+                String token = tokens.get(t);
+                prefixMatches[t] = prefixDocuments(token);
+                int[] tokenMatches = IntPostingList.union(prefixMatches[t], infixDocuments(token));
+                matches = matches == null ? tokenMatches : IntPostingList.intersect(matches, tokenMatches);
+                if (matches.length == 0)
+                    return matches;
+            }
+            return rank(matches, prefixMatches, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putUnlocked(Document document) {
+        removeUnlocked(document.id);
+        int[] ordinals = new int[document.terms.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            String text = document.terms[i];
+            Term term = dictionary.get(text);
+            if (term == null) {
+                Integer free = freeOrdinals.poll();
+                int ordinal = free != null ? free : termsByOrdinal.size();
+                term = new Term(text, ordinal);
+                dictionary.put(text, term);
+                if (free != null) {
+                    termsByOrdinal.set(ordinal, term);
+                } else {
+                    termsByOrdinal.add(term);
+                }
+                for (String trigram : trigramsOf(text)) {
+                    trigrams.computeIfAbsent(trigram, k -> new IntPostingList()).add(ordinal);
+                }
+            }
+            term.postings.add(document.id);
+            ordinals[i] = term.ordinal;
+        }
+        if (document.id >= documentTerms.length)
+            documentTerms = Arrays.copyOf(documentTerms, Math.max(document.id + 1, documentTerms.length * 3 / 2));
+        documentTerms[document.id] = ordinals;
+        documentCount++;
+    }
+
+    /**
+     * The ordinals a document holds stay valid: a term is only dropped, and its ordinal reused,
+     * once no document lists it any more.
+     */
+    private void removeUnlocked(int id) {
+        if (id < 0 || id >= documentTerms.length || documentTerms[id] == null)
+            return;
+        int[] ordinals = documentTerms[id];
+        documentTerms[id] = null;
+        documentCount--;
+        for (int ordinal : ordinals) {
+            Term term = termsByOrdinal.get(ordinal);
+            if (term.postings.remove(id) && term.postings.isEmpty())
+                dropTerm(term);
+        }
+    }
+
+    /**
+     * Forgets a term no document uses any more, so edits and deletes do not leave the
+     * dictionary and the trigram lists growing; its ordinal is handed to the next new term.
+     */
+    private void dropTerm(Term term) {
+        dictionary.remove(term.text);
+        termsByOrdinal.set(term.ordinal, null);
+        for (String trigram : trigramsOf(term.text)) {
+            IntPostingList ordinals = trigrams.get(trigram);
+            if (ordinals != null && ordinals.remove(term.ordinal) && ordinals.isEmpty())
+                trigrams.remove(trigram);
+        }
+        freeOrdinals.push(term.ordinal);
+    }
+
+    private int[] prefixDocuments(String prefix) {
+        List<int[]> postings = new ArrayList<>();
+        for (Term term : dictionary.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            postings.add(term.postings.toArray());
+        }
+        return IntPostingList.unionAll(postings);
+    }
+
+    private int[] infixDocuments(String infix) {
+        List<int[]> postings = new ArrayList<>();
+        if (infix.length() < 3) {
+            // too short for trigrams, walk the dictionary
+            for (Term term : dictionary.values()) {
+                if (!term.text.startsWith(infix) && term.text.contains(infix))
+                    postings.add(term.postings.toArray());
+            }
+            return IntPostingList.unionAll(postings);
+        }
+
+        int[] candidates = null;
+        for (String trigram : trigramsOf(infix)) {
+            IntPostingList ordinals = trigrams.get(trigram);
+            if (ordinals == null)
+                return new int[0];
+            candidates = candidates == null ? ordinals.toArray() : IntPostingList.intersect(candidates, ordinals.toArray());
+        }
+        for (int ordinal : candidates) {
+            Term term = termsByOrdinal.get(ordinal);
+            if (!term.text.startsWith(infix) && term.text.contains(infix))
+                postings.add(term.postings.toArray());
+        }
+        return IntPostingList.unionAll(postings);
+    }
+
+    private static int[] rank(int[] matches, int[][] prefixMatches, int limit) {
+        long[] keys = new long[matches.length];
+        for (int i = 0; i < matches.length; i++) {
+            int prefixHits = 0;
+            for (int[] prefix : prefixMatches) {
+                if (Arrays.binarySearch(prefix, matches[i]) >= 0)
+                    prefixHits++;
+            }
+            keys[i] = ((long) (prefixMatches.length - prefixHits) << 32) | (matches[i] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(keys);
+
+        int[] ranked = new int[Math.min(limit, keys.length)];
+        for (int i = 0; i < ranked.length; i++) {
+            ranked[i] = (int) keys[i];
+        }
+        return ranked;
+    }
+
+    private static List<String> trigramsOf(String text) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            result.add(text.substring(i, i + 3));
+        }
+        return result;
+    }
+}
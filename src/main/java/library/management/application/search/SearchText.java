@@ -0,0 +1,60 @@
+package library.management.application.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Java counterpart of the search_fold() SQL function: lower-cases text, strips
+ * diacritics (й -> и, ї -> і, ё -> е) and folds ґ and apostrophe variants.
+ */
+public final class SearchText {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Locale UKRAINIAN = Locale.of("uk");
+
+    private SearchText() {
+    }
+
+    public static String fold(String text) {
+        if (text == null)
+            return null;
+        String stripped = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return stripped.toLowerCase(UKRAINIAN)
+                .replace('\u0491', '\u0433')   // ґ -> г
+                .replace('\u2019', '\'')       // right single quotation mark
+                .replace('\u02BC', '\'')       // modifier letter apostrophe
+                .replace('`', '\'');
+    }
+
+    /**
+     * Escapes LIKE wildcards so user input is matched literally (with '\\' as the escape character).
+     */
+    public static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Folded words of the text; apostrophes stay inside words (п'ять), other punctuation splits.
+     */
+    public static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null)
+            return tokens;
+
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length()
+                    && (Character.isLetterOrDigit(folded.charAt(i)) || folded.charAt(i) == '\'');
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
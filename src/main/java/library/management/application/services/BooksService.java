@@ -1,27 +1,85 @@
 package library.management.application.services;
 
+import jakarta.persistence.EntityManagerFactory;
+import library.management.application.dto.BatchResult;
+import library.management.application.dto.BookListItem;
+import library.management.application.dto.BookSearchCriteria;
+import library.management.application.dto.BookSearchRow;
+import library.management.application.events.BookChangedEvent;
+import library.management.application.events.LoansChangedEvent;
 import library.management.application.models.Person;
+import library.management.application.repositories.BookSpecifications;
 import library.management.application.repositories.BooksRepository;
+import library.management.application.repositories.PeopleRepository;
+import library.management.application.search.CatalogSearchIndex;
+import library.management.application.search.SearchText;
+import library.management.application.utils.DatabaseVendor;
+import library.management.application.utils.KeysetCursor;
+import library.management.application.utils.KeysetPage;
+import library.management.application.utils.LoanPolicy;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import library.management.application.models.Book;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
 public class BooksService {
     @Autowired
     private final BooksRepository booksRepository;
+    private final PeopleRepository peopleRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final LoanPolicy loanPolicy;
+    private final CatalogSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DatabaseVendor databaseVendor;
 
-    public BooksService(BooksRepository booksRepository) {
+    private static final int MAX_SEARCH_RESULTS = 10000;
+
+    public BooksService(BooksRepository booksRepository,
+                        PeopleRepository peopleRepository,
+                        EntityManagerFactory entityManagerFactory,
+                        LoanPolicy loanPolicy,
+                        CatalogSearchIndex searchIndex,
+                        ApplicationEventPublisher eventPublisher,
+                        DatabaseVendor databaseVendor) {
         this.booksRepository = booksRepository;
+        this.peopleRepository = peopleRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.loanPolicy = loanPolicy;
+        this.searchIndex = searchIndex;
+        this.eventPublisher = eventPublisher;
+        this.databaseVendor = databaseVendor;
     }
 
     public List<Book> findAll() {
@@ -33,16 +91,42 @@ public class BooksService {
     }
 
 
-    public Page<Book> findAllBooksSortedByYearWithPagination(Integer page, Integer size, Boolean sortByYear) {
+    public Page<BookListItem> findAllBooksSortedByYearWithPagination(Integer page, Integer size, Boolean sortByYear) {
         if(sortByYear) {
-            return booksRepository.findAll(PageRequest.of(page, size, Sort.by("yearOfProduction")));
+            return booksRepository.findListItems(PageRequest.of(page, size, Sort.by("yearOfProduction")));
         } else {
-            return booksRepository.findAll(PageRequest.of(page, size));
+            return booksRepository.findListItems(PageRequest.of(page, size));
         }
     }
 
-    public Page<Book> findAllBookWithPagination(Integer page, Integer size) {
-        return booksRepository.findAll(PageRequest.of(page, size));
+    public KeysetPage<BookListItem> findBooksPage(String cursorToken, Integer size, boolean sortByYear) {
+        String order = sortByYear ? "year" : "id";
+        KeysetCursor cursor = KeysetCursor.decodeNumeric(cursorToken, order);
+        boolean forward = cursor == null || cursor.isForward();
+        int id = cursor == null ? Integer.MIN_VALUE : cursor.getId();
+        PageRequest limit = PageRequest.ofSize(size + 1);
+
+        List<BookListItem> rows;
+        if(sortByYear) {
+            int year = cursor == null ? Integer.MIN_VALUE : Integer.parseInt(cursor.getKey());
+            rows = forward ? booksRepository.findNextByYear(year, id, limit)
+                    : booksRepository.findPreviousByYear(year, id, limit);
+            return KeysetPage.of(rows, size, order, cursor,
+                    book -> String.valueOf(book.getYearOfProduction()), BookListItem::getBookId);
+        } else {
+            rows = forward ? booksRepository.findNextById(id, limit)
+                    : booksRepository.findPreviousById(id, limit);
+            return KeysetPage.of(rows, size, order, cursor,
+                    book -> String.valueOf(book.getBookId()), BookListItem::getBookId);
+        }
+    }
+
+    public long estimateBookCount() {
+        return databaseVendor.isPostgresql() ? booksRepository.estimateCount() : booksRepository.count();
+    }
+
+    public Page<BookListItem> findAllBookWithPagination(Integer page, Integer size) {
+        return booksRepository.findListItems(PageRequest.of(page, size));
     }
 
     public Book findBookById(int id) {
@@ -52,89 +136,265 @@ public class BooksService {
         return book.orElse(null);
     }
 
+    public Book findBookWithOwner(int id) {
+        Optional<Book> book = booksRepository.findWithOwnerByBookId(id);
+        book.ifPresent(this::setBookExpiredValue);
+
+        return book.orElse(null);
+    }
+
+    public Page<Book> findOverdueBooks(Integer page, Integer size) {
+        Page<Book> overdue = booksRepository.findOverdue(loanPolicy.overdueThreshold(),
+                PageRequest.of(page, size, Sort.by("takenAt", "bookId")));
+        overdue.forEach(book -> book.setExpired(true));
+
+        return overdue;
+    }
+
     private void setBookExpiredValue(Book book) {
         if (book.getAssignedPerson() != null) {
-            long diffInMillies = Math.abs(book.getTakenAt().getTime() - new Date().getTime());
-            // 1209600000 milliseconds = 14 days
-            if (diffInMillies > 1209600000)
-                book.setExpired(true);
+            book.setExpired(loanPolicy.isOverdue(book.getTakenAt()));
         }
     }
 
     @Transactional
     public void createNewBook(Book book) {
         booksRepository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.created(book));
     }
 
+    /**
+     * Writes the edited columns with one UPDATE guarded by the version the form was rendered with;
+     * the loan fields are never touched.
+     *
+     * @return the number of updated rows
+     * @throws ObjectOptimisticLockingFailureException if the book was changed or deleted meanwhile
+     */
     @Transactional
-    public void updateBook(int id, Book updatedBook) {
-        Book book = booksRepository.findById(id).get();
+    public int updateBook(int id, Book updatedBook) {
+        int updated = booksRepository.updateDetails(id, updatedBook.getVersion(), updatedBook.getTitle(),
+                updatedBook.getAuthor(), updatedBook.getYearOfProduction());
+        if (updated == 0)
+            throw new ObjectOptimisticLockingFailureException(Book.class, id);
 
         updatedBook.setBookId(id);
-        updatedBook.setAssignedPerson(book.getAssignedPerson());
+        eventPublisher.publishEvent(BookChangedEvent.updated(updatedBook));
+        return updated;
+    }
 
-        booksRepository.save(updatedBook);
+    @Transactional
+    public BatchResult.Outcome assignBookToPerson(int bookId, Person selectedPerson) {
+        return assignBooks(Collections.singletonList(bookId), selectedPerson.getPersonId())
+                .getItems().get(0).getOutcome();
     }
 
-    public Person findBookOwner(int id) {
-        return booksRepository.findById(id).map(Book::getAssignedPerson).orElse(null);
+    @Transactional
+    public void releaseBook(int bookId) {
+        releaseBooks(Collections.singletonList(bookId));
     }
 
     @Transactional
-    public void assignBookToPerson(int bookId, Person selectedPerson) {
-        booksRepository.findById(bookId).ifPresent(
-                book -> {
-                    book.setAssignedPerson(selectedPerson);
-                    book.setTakenAt(new Date());
-                }
-        );
+    public void moveExpiredDate(int bookId) {
+        extendLoans(Collections.singletonList(bookId));
     }
 
+    /**
+     * Lends every free book among {@code bookIds} to the reader. The UPDATE only matches rows whose
+     * person_id is still null and reports the rows it changed, so when two desks race for the same copy
+     * exactly one of them wins and the other gets ALREADY_TAKEN, without locking anything up front.
+     */
     @Transactional
-    public void releaseBook(int bookId) {
-        booksRepository.findById(bookId).ifPresent(
-                book -> {
-                    book.setAssignedPerson(null);
-                    book.setTakenAt(null);
+    public BatchResult assignBooks(Collection<Integer> bookIds, int personId) {
+        BatchResult result = new BatchResult();
+        Set<Integer> ids = new LinkedHashSet<>(bookIds);
+        Optional<Person> person = peopleRepository.findById(personId);
+        if (person.isEmpty()) {
+            ids.forEach(id -> result.add(id, BatchResult.Outcome.READER_NOT_FOUND));
+            return result;
+        }
+        if (ids.isEmpty())
+            return result;
+
+        Date takenAt = new Date();
+        Set<Integer> lent = updateLoans(ids,
+                batch -> booksRepository.assignReturning(batch, personId, takenAt),
+                id -> booksRepository.assign(id, person.get(), takenAt));
+
+        Map<Integer, Object[]> states = findLoanStates(ids.stream().filter(id -> !lent.contains(id)).toList());
+        for (int id : ids) {
+            if (lent.contains(id)) {
+                result.add(id, BatchResult.Outcome.DONE);
+            } else if (states.containsKey(id)) {
+                result.add(id, BatchResult.Outcome.ALREADY_TAKEN);
+            } else {
+                result.add(id, BatchResult.Outcome.BOOK_NOT_FOUND);
+            }
+        }
+        if (!lent.isEmpty())
+            eventPublisher.publishEvent(new LoansChangedEvent(new ArrayList<>(lent)));
+        return result;
+    }
+
+    @Transactional
+    public BatchResult releaseBooks(Collection<Integer> bookIds) {
+        return changeLoans(bookIds, (owned, owner) -> updateLoans(owned,
+                batch -> booksRepository.releaseReturning(batch, owner),
+                id -> booksRepository.release(id, owner)));
+    }
+
+    @Transactional
+    public BatchResult extendLoans(Collection<Integer> bookIds) {
+        Date takenAt = new Date();
+        return changeLoans(bookIds, (owned, owner) -> updateLoans(owned,
+                batch -> booksRepository.extendReturning(batch, owner, takenAt),
+                id -> booksRepository.extend(id, owner, takenAt)));
+    }
+
+    private Map<Integer, Object[]> findLoanStates(Collection<Integer> bookIds) {
+        Map<Integer, Object[]> states = new HashMap<>();
+        if (!bookIds.isEmpty()) {
+            booksRepository.findLoanStates(bookIds).forEach(row -> states.put((Integer) row[0], row));
+        }
+        return states;
+    }
+
+    /**
+     * Returns or extends the lent books among {@code bookIds}. The loans are read without a lock, so the
+     * UPDATE repeats the reader they were read with, one statement per reader: a book returned and lent to
+     * someone else in between is reported as CONFLICT instead of ending or extending the new reader's loan.
+     */
+    private BatchResult changeLoans(Collection<Integer> bookIds,
+                                    BiFunction<List<Integer>, Integer, Set<Integer>> updateOwnedBy) {
+        Set<Integer> ids = new LinkedHashSet<>(bookIds);
+        Map<Integer, Object[]> states = findLoanStates(ids);
+        Map<Integer, List<Integer>> lentByOwner = new LinkedHashMap<>();
+        for (int id : ids) {
+            Object[] state = states.get(id);
+            if (state != null && state[1] != null)
+                lentByOwner.computeIfAbsent((Integer) state[1], owner -> new ArrayList<>()).add(id);
+        }
+        Set<Integer> changed = new HashSet<>();
+        lentByOwner.forEach((owner, owned) -> changed.addAll(updateOwnedBy.apply(owned, owner)));
+
+        BatchResult result = new BatchResult();
+        List<Integer> done = new ArrayList<>();
+        for (int id : ids) {
+            Object[] state = states.get(id);
+            if (state == null) {
+                result.add(id, BatchResult.Outcome.BOOK_NOT_FOUND);
+            } else if (state[1] == null) {
+                result.add(id, BatchResult.Outcome.NOT_TAKEN);
+            } else if (changed.contains(id)) {
+                done.add(id);
+                result.add(id, BatchResult.Outcome.DONE);
+            } else {
+                result.add(id, BatchResult.Outcome.CONFLICT);
+            }
+        }
+
+        if (!done.isEmpty())
+            eventPublisher.publishEvent(new LoansChangedEvent(done));
+        return result;
+    }
+
+    /**
+     * Runs a conditional loan UPDATE over {@code ids} and returns the ids of the rows it changed. On
+     * PostgreSQL that is a single statement whose RETURNING clause names them; H2 has no RETURNING, so
+     * there every book gets its own UPDATE and the row count decides.
+     */
+    private Set<Integer> updateLoans(Collection<Integer> ids, Function<Collection<Integer>, List<Integer>> returning,
+                                     ToIntFunction<Integer> single) {
+        Set<Integer> changed = new LinkedHashSet<>();
+        if (databaseVendor.isPostgresql()) {
+            changed.addAll(returning.apply(ids));
+            evictBooks(changed);
+        } else {
+            for (int id : ids) {
+                if (single.applyAsInt(id) == 1)
+                    changed.add(id);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * To Hibernate a RETURNING statement is a native query, so unlike a JPQL update it evicts nothing.
+     * Only the changed books leave the entity cache (no cached list query selects loan columns), now and
+     * once more after commit, so a concurrent reader cannot put back the old loan.
+     */
+    private void evictBooks(Collection<Integer> ids) {
+        if (ids.isEmpty())
+            return;
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        ids.forEach(id -> cache.evictEntityData(Book.class, id));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.forEach(id -> cache.evictEntityData(Book.class, id));
                 }
-        );
+            });
+        }
     }
 
     @Transactional
-    public void moveExpiredDate(int bookId) {
+    public void deleteBook(int bookId) {
         booksRepository.findById(bookId).ifPresent(
                 book -> {
-                    book.setTakenAt(new Date());
+                    booksRepository.delete(book);
+                    eventPublisher.publishEvent(BookChangedEvent.deleted(bookId));
                 }
         );
     }
 
-    @Transactional
-    public void deleteBook(int bookId) {
-        booksRepository.deleteById(bookId);
-    }
+    public Page<BookSearchRow> searchBooks(String query, Integer page, Integer size) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        if(!searchIndex.isReady()) {
+            String trimmed = query.trim();
+            Page<Integer> ids = booksRepository.searchIds(trimmed, SearchText.escapeLike(trimmed), pageRequest);
+            return new PageImpl<>(findRowsInOrder(ids.getContent()), pageRequest, ids.getTotalElements());
+        }
 
-    public List<Book> findByTitle(String startingWith) {
-        return booksRepository.findByTitleStartingWith(startingWith);
-    }
+        int[] ids = searchIndex.searchBooks(query, MAX_SEARCH_RESULTS);
+        int from = (int) Math.min(pageRequest.getOffset(), ids.length);
+        int to = Math.min(from + size, ids.length);
+        List<Integer> pageIds = Arrays.stream(ids, from, to).boxed().collect(Collectors.toList());
 
-    public List<Book> findByAuthor(String author) {
-        return booksRepository.findByAuthorStartingWith(author);
+        return new PageImpl<>(findRowsInOrder(pageIds), pageRequest, ids.length);
     }
 
-    public List<Book> findByYearOfProduction(int yearOfProduction) {
-        return booksRepository.findByYearOfProduction(yearOfProduction);
-    }
-    public List<Book> findByAuthorAndTitle(String author, String title) {
-        return booksRepository.findByAuthorStartingWithAndTitleStartingWith(author, title);
+    private List<BookSearchRow> findRowsInOrder(List<Integer> ids) {
+        if(ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Integer, BookSearchRow> byId = booksRepository
+                .findRows(BookSpecifications.idIn(ids), PageRequest.ofSize(ids.size()))
+                .stream()
+                .collect(Collectors.toMap(BookSearchRow::getBookId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
-    public List<Book> findByTitleAndYearOfProduction(String title, int yearOfProduction) {
-        return booksRepository.findByTitleStartingWithAndYearOfProduction(title, yearOfProduction);
+
+    public Page<Book> search(BookSearchCriteria criteria, Pageable pageable) {
+        return booksRepository.findAll(BookSpecifications.matching(criteria), pageable);
     }
-    public List<Book> findByAuthorAndYearOfProduction(String author, int yearOfProduction) {
-        return booksRepository.findByAuthorStartingWithAndYearOfProduction(author, yearOfProduction);
+
+    public Page<BookSearchRow> searchRows(BookSearchCriteria criteria, Integer page, Integer size, String sortBy) {
+        return booksRepository.findRows(BookSpecifications.matching(criteria),
+                PageRequest.of(page, size, searchSort(sortBy)));
     }
-    public List<Book> findByTitleAndAuthorAndYearOfProduction(String title, String author, int yearOfProduction) {
-        return booksRepository.findByTitleStartingWithAndAuthorStartingWithAndYearOfProduction(title, author, yearOfProduction);
+
+    private static Sort searchSort(String sortBy) {
+        if("author".equals(sortBy)) {
+            return Sort.by("author", "title", "bookId");
+        } else if("year".equals(sortBy)) {
+            return Sort.by("yearOfProduction", "title", "bookId");
+        } else {
+            return Sort.by("title", "bookId");
+        }
     }
 }
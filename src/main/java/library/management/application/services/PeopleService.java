@@ -1,30 +1,66 @@
 package library.management.application.services;
 
+import library.management.application.dto.PersonListItem;
+import library.management.application.dto.PersonSearchCriteria;
+import library.management.application.events.PersonChangedEvent;
 import library.management.application.models.Book;
 import library.management.application.models.Person;
+import library.management.application.repositories.BooksRepository;
 import library.management.application.repositories.PeopleRepository;
-import org.hibernate.Hibernate;
+import library.management.application.repositories.PersonSpecifications;
+import library.management.application.search.CatalogSearchIndex;
+import library.management.application.search.SearchText;
+import library.management.application.utils.DatabaseVendor;
+import library.management.application.utils.KeysetCursor;
+import library.management.application.utils.KeysetPage;
+import library.management.application.utils.LoanPolicy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Date;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
 public class PeopleService {
     @Autowired
     private final PeopleRepository peopleRepository;
-
-    public PeopleService(PeopleRepository peopleRepository) {
+    private final BooksRepository booksRepository;
+    private final LoanPolicy loanPolicy;
+    private final CatalogSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DatabaseVendor databaseVendor;
+
+    private static final int MAX_SEARCH_RESULTS = 10000;
+
+    public PeopleService(PeopleRepository peopleRepository,
+                         BooksRepository booksRepository,
+                         LoanPolicy loanPolicy,
+                         CatalogSearchIndex searchIndex,
+                         ApplicationEventPublisher eventPublisher,
+                         DatabaseVendor databaseVendor) {
         this.peopleRepository = peopleRepository;
+        this.booksRepository = booksRepository;
+        this.loanPolicy = loanPolicy;
+        this.searchIndex = searchIndex;
+        this.eventPublisher = eventPublisher;
+        this.databaseVendor = databaseVendor;
     }
 
     public List<Person> findAll() {
@@ -35,16 +71,51 @@ public class PeopleService {
         return peopleRepository.findAll(Sort.by("fullName"));
     }
 
-    public Page<Person> findAllPeopleSortedByNameWithPagination(Integer page, Integer size, Boolean sort) {
+    public Page<PersonListItem> findAllPeopleSortedByNameWithPagination(Integer page, Integer size, Boolean sort) {
         if(sort) {
-            return peopleRepository.findAll(PageRequest.of(page, size, Sort.by("fullName")));
+            return peopleRepository.findListItems(PageRequest.of(page, size, Sort.by("fullName")));
         } else {
-            return peopleRepository.findAll(PageRequest.of(page, size));
+            return peopleRepository.findListItems(PageRequest.of(page, size));
         }
     }
 
-    public Page<Person> findAllPeopleWithPagination(Integer page, Integer size) {
-        return peopleRepository.findAll(PageRequest.of(page, size));
+    public KeysetPage<PersonListItem> findPeoplePage(String cursorToken, Integer size, boolean sortByName) {
+        String order = sortByName ? "name" : "id";
+        KeysetCursor cursor = KeysetCursor.decode(cursorToken, order);
+        boolean forward = cursor == null || cursor.isForward();
+        int id = cursor == null ? Integer.MIN_VALUE : cursor.getId();
+        PageRequest limit = PageRequest.ofSize(size + 1);
+
+        List<PersonListItem> rows;
+        if(sortByName) {
+            String name = cursor == null ? "" : cursor.getKey();
+            rows = forward ? peopleRepository.findNextByName(name, id, limit)
+                    : peopleRepository.findPreviousByName(name, id, limit);
+            return KeysetPage.of(rows, size, order, cursor, PersonListItem::getFullName, PersonListItem::getPersonId);
+        } else {
+            rows = forward ? peopleRepository.findNextById(id, limit)
+                    : peopleRepository.findPreviousById(id, limit);
+            return KeysetPage.of(rows, size, order, cursor,
+                    person -> String.valueOf(person.getPersonId()), PersonListItem::getPersonId);
+        }
+    }
+
+    public long estimatePeopleCount() {
+        return databaseVendor.isPostgresql() ? peopleRepository.estimateCount() : peopleRepository.count();
+    }
+
+    public Page<PersonListItem> findAllPeopleWithPagination(Integer page, Integer size) {
+        return peopleRepository.findListItems(PageRequest.of(page, size));
+    }
+
+    public Slice<PersonListItem> findReaders(String startingWith, Integer page, Integer size) {
+        PageRequest pageRequest = PageRequest.of(page, size, Sort.by("fullName"));
+        if(startingWith == null || startingWith.isBlank()) {
+            return peopleRepository.findListItemsBy(pageRequest);
+        } else {
+            return peopleRepository.findRowSlice(PersonSpecifications.fullNameStartsWith(startingWith.trim()),
+                    pageRequest);
+        }
     }
 
     public Person findPersonById(int id) {
@@ -56,57 +127,90 @@ public class PeopleService {
         return peopleRepository.findByFullName(fullName);
     }
 
+    public boolean existsByFullName(String fullName) {
+        return peopleRepository.existsByFullName(fullName);
+    }
+
     @Transactional
     public void createNewPerson(Person person) {
         peopleRepository.save(person);
+        eventPublisher.publishEvent(PersonChangedEvent.created(person));
     }
 
     @Transactional
-    public void updatePerson(int id, Person updatedPerson) {
+    public int updatePerson(int id, Person updatedPerson) {
+        int updated = peopleRepository.updateDetails(id, updatedPerson.getVersion(), updatedPerson.getFullName(),
+                updatedPerson.getYearOfBirth());
+        if (updated == 0)
+            throw new ObjectOptimisticLockingFailureException(Person.class, id);
+
         updatedPerson.setPersonId(id);
-        peopleRepository.save(updatedPerson);
+        eventPublisher.publishEvent(PersonChangedEvent.updated(updatedPerson));
+        return updated;
     }
 
+    /**
+     * The reader's books are returned with a JPQL update first, which makes Hibernate evict the cached
+     * books. The foreign key (on delete set null) would clear them behind its back and leave cached
+     * Book entries pointing at the deleted reader.
+     */
     @Transactional
     public void deletePerson(int personId) {
+        booksRepository.releaseAllOf(personId);
         peopleRepository.deleteById(personId);
+        eventPublisher.publishEvent(PersonChangedEvent.deleted(personId));
     }
 
-    public List<Book> findBooksByPersonId(int personId) {
-        Optional<Person> person = peopleRepository.findById(personId);
-        if(person.isPresent()) {
-            Hibernate.initialize(person.get().getBooks());
-
-            person.get().getBooks().forEach(book -> {
-                long diffInMillies = Math.abs(book.getTakenAt().getTime() - new Date().getTime());
-                // 1209600000 milliseconds = 14 days
-                if (diffInMillies > 1209600000)
-                    book.setExpired(true); // книга прострочена
-            });
-
-            return person.get().getBooks();
-        } else {
-            return Collections.emptyList();
-        }
+    public Person findPersonWithBooks(int personId) {
+        Optional<Person> person = peopleRepository.findWithBooksByPersonId(personId);
+        person.ifPresent(p -> p.getBooks().forEach(
+                book -> book.setExpired(loanPolicy.isOverdue(book.getTakenAt()))));
+
+        return person.orElse(null);
     }
 
-    public List<Person> findByFullNameStartingWith(String startingWith) {
-        return peopleRepository.findByFullNameStartingWith(startingWith);
+    public List<Book> findBooksByPersonId(int personId) {
+        Person person = findPersonWithBooks(personId);
+        return person == null ? Collections.emptyList() : person.getBooks();
     }
 
-    public List<Person> findByFullNameContaining(String name) {
-        return peopleRepository.findByFullNameContaining(name);
+    public Page<PersonListItem> searchPeople(String query, Integer page, Integer size) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        if(!searchIndex.isReady()) {
+            String trimmed = query.trim();
+            Page<Integer> ids = peopleRepository.searchIds(trimmed, SearchText.escapeLike(trimmed), pageRequest);
+            return new PageImpl<>(findRowsInOrder(ids.getContent()), pageRequest, ids.getTotalElements());
+        }
+
+        int[] ids = searchIndex.searchPeople(query, MAX_SEARCH_RESULTS);
+        int from = (int) Math.min(pageRequest.getOffset(), ids.length);
+        int to = Math.min(from + size, ids.length);
+        List<Integer> pageIds = Arrays.stream(ids, from, to).boxed().collect(Collectors.toList());
+
+        return new PageImpl<>(findRowsInOrder(pageIds), pageRequest, ids.length);
     }
 
-    public List<Person> findByYearOfBirth(int yearOfBirth) {
-        return peopleRepository.findByYearOfBirth(yearOfBirth);
+    private List<PersonListItem> findRowsInOrder(List<Integer> ids) {
+        if(ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Integer, PersonListItem> byId = peopleRepository
+                .findRows(PersonSpecifications.idIn(ids), PageRequest.ofSize(ids.size()))
+                .stream()
+                .collect(Collectors.toMap(PersonListItem::getPersonId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
-    public List<Person> findByFullNameStartingWithAndYearOfBirth(String name, int yearOfBirth) {
-        return peopleRepository.findByFullNameStartingWithAndYearOfBirth(name, yearOfBirth);
+    public Page<Person> search(PersonSearchCriteria criteria, Pageable pageable) {
+        return peopleRepository.findAll(PersonSpecifications.matching(criteria), pageable);
     }
 
-    public List<Person> findByFullNameContainingAndYearOfBirth(String name, int yearOfBirth) {
-        return peopleRepository.findByFullNameContainingAndYearOfBirth(name, yearOfBirth);
+    public Page<PersonListItem> searchRows(PersonSearchCriteria criteria, Integer page, Integer size) {
+        return peopleRepository.findRows(PersonSpecifications.matching(criteria),
+                PageRequest.of(page, size, Sort.by("fullName", "personId")));
     }
 }
@@ -0,0 +1,58 @@
+package library.management.application.utils;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Streams long lists to the client while the view is still rendering. The template iterates the rows
+ * returned here, and every flush_rows rows the response is flushed, so the browser gets the top of the
+ * page and the first rows without waiting for the rest.
+ */
+@Component
+public class ChunkedRendering {
+
+    private final int flushRows;
+
+    @Autowired
+    public ChunkedRendering(Environment environment) {
+        this.flushRows = environment.getProperty("library.templates.flush_rows", Integer.class, 100);
+    }
+
+    public <T> Iterable<T> rows(List<T> rows, HttpServletResponse response) {
+        if (flushRows <= 0 || rows.size() <= flushRows)
+            return rows;
+
+        return () -> new Iterator<>() {
+            private final Iterator<T> delegate = rows.iterator();
+            private int rendered;
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (rendered > 0 && rendered % flushRows == 0)
+                    flush(response);
+                rendered++;
+                return delegate.next();
+            }
+        };
+    }
+
+    private static void flush(HttpServletResponse response) {
+        try {
+            response.flushBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package library.management.application.utils;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * The database behind hibernate.connection.url: PostgreSQL in production, embedded H2 for tests
+ * and benchmarks. Names the db/migration/{vendor} folder and picks vendor-specific queries.
+ */
+@Component
+public class DatabaseVendor {
+
+    private final boolean h2;
+
+    @Autowired
+    public DatabaseVendor(Environment environment) {
+        this.h2 = environment.getRequiredProperty("hibernate.connection.url").startsWith("jdbc:h2:");
+    }
+
+    public String getName() {
+        return h2 ? "h2" : "postgresql";
+    }
+
+    public boolean isPostgresql() {
+        return !h2;
+    }
+}
@@ -0,0 +1,83 @@
+package library.management.application.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated list: the sort key and id of the row next to
+ * which the next (or previous) page starts. Sent to the browser as an opaque token.
+ */
+public final class KeysetCursor {
+    private final String order;
+    private final boolean forward;
+    private final int id;
+    private final String key;
+
+    private KeysetCursor(String order, boolean forward, int id, String key) {
+        this.order = order;
+        this.forward = forward;
+        this.id = id;
+        this.key = key;
+    }
+
+    public static KeysetCursor after(String order, String key, int id) {
+        return new KeysetCursor(order, true, id, key);
+    }
+
+    public static KeysetCursor before(String order, String key, int id) {
+        return new KeysetCursor(order, false, id, key);
+    }
+
+    public String getOrder() {
+        return order;
+    }
+
+    public boolean isForward() {
+        return forward;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String encode() {
+        String raw = order + "|" + (forward ? "n" : "p") + "|" + id + "|" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the decoded cursor, or null when the token is absent, malformed
+     * or was issued for a different ordering (the list then starts from the first page)
+     */
+    public static KeysetCursor decode(String token, String expectedOrder) {
+        if (token == null || token.isBlank())
+            return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || !parts[0].equals(expectedOrder))
+                return null;
+            return new KeysetCursor(parts[0], "n".equals(parts[1]), Integer.parseInt(parts[2]), parts[3]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    /**
+     * Same as {@link #decode}, but also rejects tokens whose sort key is not an integer.
+     */
+    public static KeysetCursor decodeNumeric(String token, String expectedOrder) {
+        KeysetCursor cursor = decode(token, expectedOrder);
+        if (cursor == null)
+            return null;
+        try {
+            Integer.parseInt(cursor.getKey());
+            return cursor;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
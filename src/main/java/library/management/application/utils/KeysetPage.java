@@ -0,0 +1,65 @@
+package library.management.application.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+public final class KeysetPage<T> {
+    private final List<T> content;
+    private final String nextCursor;
+    private final String previousCursor;
+
+    private KeysetPage(List<T> content, String nextCursor, String previousCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.previousCursor = previousCursor;
+    }
+
+    /**
+     * Builds a page from rows fetched with a limit of size + 1; the extra row only
+     * tells whether there is more data in the direction of the fetch.
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int size, String order, KeysetCursor cursor,
+                                       Function<T, String> key, ToIntFunction<T> id) {
+        boolean forward = cursor == null || cursor.isForward();
+        boolean more = rows.size() > size;
+
+        List<T> content = new ArrayList<>(more ? rows.subList(0, size) : rows);
+        if (!forward)
+            Collections.reverse(content);
+        if (content.isEmpty())
+            return new KeysetPage<>(content, null, null);
+
+        boolean hasNext = !forward || more;
+        boolean hasPrevious = forward ? cursor != null : more;
+
+        T first = content.get(0);
+        T last = content.get(content.size() - 1);
+        String next = hasNext ? KeysetCursor.after(order, key.apply(last), id.applyAsInt(last)).encode() : null;
+        String previous = hasPrevious ? KeysetCursor.before(order, key.apply(first), id.applyAsInt(first)).encode() : null;
+
+        return new KeysetPage<>(content, next, previous);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public String getPreviousCursor() {
+        return previousCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean hasPrevious() {
+        return previousCursor != null;
+    }
+}
@@ -0,0 +1,34 @@
+package library.management.application.utils;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class LoanPolicy {
+
+    private final int loanPeriodDays;
+
+    @Autowired
+    public LoanPolicy(Environment environment) {
+        this.loanPeriodDays = environment.getProperty("library.loan_period_days", Integer.class, 14);
+    }
+
+    public int getLoanPeriodDays() {
+        return loanPeriodDays;
+    }
+
+    /**
+     * Books taken before this moment are overdue.
+     */
+    public Date overdueThreshold() {
+        return new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(loanPeriodDays));
+    }
+
+    public boolean isOverdue(Date takenAt) {
+        return takenAt != null && takenAt.before(overdueThreshold());
+    }
+}
@@ -2,7 +2,9 @@ package library.management.application.utils;
 
 import library.management.application.models.Person;
 import library.management.application.services.PeopleService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.Errors;
 import org.springframework.validation.Validator;
@@ -26,8 +28,26 @@ public class PersonValidator implements Validator {
     public void validate(Object target, Errors errors) {
         Person person = (Person) target;
 
-        if(peopleService.findByFullName(person.getFullName()).isPresent()) {
-            errors.rejectValue("fullName", "", "Користувач з таким іменем вже існує ! Введіть інше ім'я");
+        if(peopleService.existsByFullName(person.getFullName())) {
+            rejectDuplicateName(errors);
         }
     }
+
+    public void rejectDuplicateName(Errors errors) {
+        errors.rejectValue("fullName", "", "Користувач з таким іменем вже існує ! Введіть інше ім'я");
+    }
+
+    /**
+     * The check above can race with another registration; the unique constraint on full_name
+     * then fails the insert, which is reported as the same form error.
+     */
+    public static boolean isDuplicateName(DataIntegrityViolationException e) {
+        for(Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if(cause instanceof ConstraintViolationException) {
+                return Person.FULL_NAME_CONSTRAINT.equalsIgnoreCase(
+                        ((ConstraintViolationException) cause).getConstraintName());
+            }
+        }
+        return false;
+    }
 }
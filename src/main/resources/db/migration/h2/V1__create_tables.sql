@@ -0,0 +1,21 @@
+-- Embedded database schema, kept in step with db/migration/postgresql.
+
+create table person
+(
+    person_id     integer generated by default as identity primary key,
+    full_name     varchar(150) not null,
+    year_of_birth integer      not null,
+    version       integer      not null default 0,
+    constraint person_full_name_key unique (full_name)
+);
+
+create table book
+(
+    book_id            integer generated by default as identity primary key,
+    title              varchar not null,
+    author             varchar not null,
+    year_of_production integer not null,
+    person_id          integer references person (person_id) on delete set null,
+    taken_at           timestamp,
+    version            integer not null default 0
+);
@@ -0,0 +1,2 @@
+-- search_fold() is backed by the Java implementation the in-memory index uses.
+create alias search_fold deterministic for 'library.management.application.search.SearchText.fold';
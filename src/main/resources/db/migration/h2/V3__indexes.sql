@@ -0,0 +1,8 @@
+-- H2 has no partial indexes, the PostgreSQL partial indexes become plain ones.
+
+create index book_person_id_idx on book (person_id);
+create index book_loaned_taken_at_idx on book (taken_at, book_id);
+create index book_year_idx on book (year_of_production, book_id);
+create index book_title_idx on book (title, book_id);
+create index book_author_idx on book (author, book_id);
+create index person_full_name_idx on person (full_name, person_id);
@@ -0,0 +1,55 @@
+-- Base schema. Statements are idempotent so databases created by hand before migrations
+-- existed are brought up to date instead of failing (see baselineVersion in SpringConfig).
+
+create table if not exists person
+(
+    person_id     integer generated by default as identity primary key,
+    full_name     varchar(150) not null,
+    year_of_birth integer      not null,
+    version       integer      not null default 0
+);
+
+create table if not exists book
+(
+    book_id            integer generated by default as identity primary key,
+    title              varchar not null,
+    author             varchar not null,
+    year_of_production integer not null,
+    person_id          integer references person (person_id) on delete set null,
+    taken_at           timestamp,
+    version            integer not null default 0
+);
+
+alter table person add column if not exists version integer not null default 0;
+alter table book add column if not exists version integer not null default 0;
+
+-- Readers registered before names were unique may share one. The oldest keeps the name, every
+-- other one gets its id appended so the constraint can be added, and each rename is reported
+-- in the migration log so the librarians can correct the names afterwards.
+do $$
+declare
+    duplicate record;
+    suffix    text;
+begin
+    if not exists (select 1 from pg_constraint where conname = 'person_full_name_key') then
+        for duplicate in
+            select person_id, full_name
+            from (select person_id, full_name,
+                         row_number() over (partition by full_name order by person_id) as position
+                  from person) named
+            where position > 1
+            order by person_id
+        loop
+            suffix := ' (' || duplicate.person_id || ')';
+            update person
+            set full_name = left(duplicate.full_name, 150 - length(suffix)) || suffix,
+                version   = version + 1
+            where person_id = duplicate.person_id;
+            raise warning 'Reader % shares the name "%" with an earlier reader, renamed to "%"',
+                duplicate.person_id, duplicate.full_name, left(duplicate.full_name, 150 - length(suffix)) || suffix;
+        end loop;
+
+        alter table person add constraint person_full_name_key unique (full_name);
+    end if;
+end
+$$;
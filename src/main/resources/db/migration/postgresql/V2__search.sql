@@ -0,0 +1,16 @@
+-- Search support: case/diacritic folding and trigram indexes (needs rights to create extensions).
+
+create extension if not exists pg_trgm;
+create extension if not exists unaccent;
+
+-- unaccent() is only STABLE, expression indexes need an IMMUTABLE wrapper.
+-- Lower-cases, strips diacritics (й -> и, ї -> і, ё -> е) and folds ґ and apostrophe variants.
+create or replace function search_fold(text) returns text
+    language sql immutable parallel safe strict
+as $$
+    select translate(lower(public.unaccent('public.unaccent'::regdictionary, $1)), 'ґ’ʼ`', 'г''''''')
+$$;
+
+create index if not exists book_title_trgm_idx on book using gin (search_fold(title) gin_trgm_ops);
+create index if not exists book_author_trgm_idx on book using gin (search_fold(author) gin_trgm_ops);
+create index if not exists person_full_name_trgm_idx on person using gin (search_fold(full_name) gin_trgm_ops);
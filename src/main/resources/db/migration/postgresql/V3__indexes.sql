@@ -0,0 +1,21 @@
+-- Indexes behind the repository queries. Every list is ordered by (key, id), so the id is
+-- part of each sort index and keyset pages are read straight from the index.
+
+-- books of one reader (Person.books, batch circulation); free books carry no entry
+create index if not exists book_person_id_idx on book (person_id) where person_id is not null;
+
+-- loans ordered by loan time: overdue page (taken_at < threshold) and the loans export
+drop index if exists book_taken_at_idx;
+create index if not exists book_loaned_taken_at_idx on book (taken_at, book_id) where taken_at is not null;
+
+-- "available only" filter of the criteria search
+create index if not exists book_available_idx on book (book_id) where person_id is null;
+
+-- keyset pages and search sorting
+create index if not exists book_year_idx on book (year_of_production, book_id);
+create index if not exists book_title_idx on book (title, book_id);
+create index if not exists book_author_idx on book (author, book_id);
+create index if not exists person_full_name_idx on person (full_name, person_id);
+
+analyze book;
+analyze person;
@@ -0,0 +1,226 @@
+package library.management.application.services;
+
+import junit.framework.TestCase;
+import library.management.application.config.SpringConfig;
+import library.management.application.dto.BatchResult;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Function;
+
+/**
+ * Runs circulation batches from parallel threads against embedded H2 migrated with db/migration/h2, the
+ * same context the WAR starts. Every DONE must be exactly one committed change of the book row.
+ */
+public class BooksServiceConcurrencyTest extends TestCase {
+    private static final int THREADS = 8;
+
+    private AnnotationConfigWebApplicationContext context;
+    private BooksService booksService;
+    private JdbcTemplate jdbcTemplate;
+    private String url;
+
+    @Override
+    protected void setUp() {
+        url = "jdbc:h2:mem:circulation-" + getName() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+        // system properties take precedence over hibernate.properties
+        System.setProperty("hibernate.connection.url", url);
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(SpringConfig.class);
+        context.refresh();
+
+        booksService = context.getBean(BooksService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        context.close();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            connection.createStatement().execute("shutdown");
+        }
+        System.clearProperty("hibernate.connection.url");
+    }
+
+    public void testConcurrentCheckoutLendsEveryBookOnce() throws Exception {
+        List<Integer> books = createBooks(20);
+        List<Integer> readers = createReaders(THREADS);
+
+        List<BatchResult> results = runInParallel(reader -> booksService.assignBooks(books, readers.get(reader)));
+
+        for (int book : books) {
+            Integer winner = null;
+            for (int reader = 0; reader < THREADS; reader++) {
+                BatchResult.Outcome outcome = outcomeOf(results.get(reader), book);
+                if (outcome == BatchResult.Outcome.DONE) {
+                    assertNull("book " + book + " was lent twice", winner);
+                    winner = readers.get(reader);
+                } else {
+                    assertEquals(BatchResult.Outcome.ALREADY_TAKEN, outcome);
+                }
+            }
+            assertNotNull("book " + book + " was not lent", winner);
+            assertEquals(winner, loanOf(book).get("person_id"));
+        }
+    }
+
+    public void testConcurrentReturnsAndExtensionsLoseNoUpdate() throws Exception {
+        // few books and single-book batches: plenty of collisions, and a transaction never holds two row locks
+        List<Integer> books = createBooks(4);
+        List<Integer> readers = createReaders(THREADS);
+        AtomicIntegerArray assigned = new AtomicIntegerArray(books.size());
+        AtomicIntegerArray released = new AtomicIntegerArray(books.size());
+        AtomicIntegerArray extended = new AtomicIntegerArray(books.size());
+
+        runInParallel(reader -> {
+            Random random = new Random(reader);
+            for (int round = 0; round < 200; round++) {
+                int index = random.nextInt(books.size());
+                List<Integer> batch = List.of(books.get(index));
+                switch (random.nextInt(3)) {
+                    case 0 -> {
+                        if (booksService.assignBooks(batch, readers.get(reader)).getSucceeded() == 1)
+                            assigned.incrementAndGet(index);
+                    }
+                    case 1 -> {
+                        if (booksService.releaseBooks(batch).getSucceeded() == 1)
+                            released.incrementAndGet(index);
+                    }
+                    default -> {
+                        if (booksService.extendLoans(batch).getSucceeded() == 1)
+                            extended.incrementAndGet(index);
+                    }
+                }
+            }
+            return null;
+        });
+
+        for (int index = 0; index < books.size(); index++) {
+            Map<String, Object> loan = loanOf(books.get(index));
+            int lent = assigned.get(index) - released.get(index);
+            assertEquals("returns of book " + books.get(index), loan.get("person_id") == null ? 0 : 1, lent);
+            // every loan UPDATE bumps the version once, so each DONE reported is exactly one committed change
+            assertEquals("changes of book " + books.get(index),
+                    assigned.get(index) + released.get(index) + extended.get(index),
+                    ((Number) loan.get("version")).intValue());
+        }
+    }
+
+    public void testReturnOfALoanGivenToAnotherReaderMeanwhileIsAConflict() throws Exception {
+        List<Integer> books = createBooks(2);
+        List<Integer> readers = createReaders(2);
+        booksService.assignBooks(books, readers.get(0));
+
+        assertEquals(BatchResult.Outcome.CONFLICT,
+                changeWhileLentToAnotherReader(books.get(0), readers.get(1), booksService::releaseBooks));
+        assertEquals(BatchResult.Outcome.CONFLICT,
+                changeWhileLentToAnotherReader(books.get(1), readers.get(1), booksService::extendLoans));
+        for (int book : books) {
+            Map<String, Object> loan = loanOf(book);
+            assertEquals(readers.get(1), loan.get("person_id"));
+            assertEquals(2, ((Number) loan.get("version")).intValue());
+        }
+    }
+
+    /**
+     * Runs {@code change} on the book while another transaction, holding the row, hands the loan to
+     * {@code reader}: the batch reads the old loan, waits for the row and only then finds the new one.
+     */
+    private BatchResult.Outcome changeWhileLentToAnotherReader(int bookId, int reader,
+                                                               Function<List<Integer>, BatchResult> change)
+            throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "update book set person_id = ?, taken_at = current_timestamp, version = version + 1 where book_id = ?")) {
+                statement.setInt(1, reader);
+                statement.setInt(2, bookId);
+                statement.executeUpdate();
+            }
+
+            Future<BatchResult> result = executor.submit(() -> change.apply(List.of(bookId)));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!result.isDone() && jdbcTemplate.queryForObject(
+                    "select count(*) from information_schema.sessions where blocker_id is not null",
+                    Integer.class) == 0) {
+                assertTrue("the batch never waited for the row", System.nanoTime() < deadline);
+                Thread.sleep(10);
+            }
+            connection.commit();
+            return result.get(1, TimeUnit.MINUTES).getItems().get(0).getOutcome();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private <T> List<T> runInParallel(ThreadTask<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int index = thread;
+                futures.add(executor.submit((Callable<T>) () -> {
+                    start.await();
+                    return task.run(index);
+                }));
+            }
+            start.countDown();
+
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures)
+                results.add(future.get(2, TimeUnit.MINUTES));
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Integer> createBooks(int count) {
+        for (int i = 0; i < count; i++) {
+            jdbcTemplate.update("insert into book (title, author, year_of_production) values (?, ?, ?)",
+                    "Книга " + i, "Автор " + i, 1990);
+        }
+        return jdbcTemplate.queryForList("select book_id from book order by book_id", Integer.class);
+    }
+
+    private List<Integer> createReaders(int count) {
+        for (int i = 0; i < count; i++) {
+            jdbcTemplate.update("insert into person (full_name, year_of_birth) values (?, ?)", "Читач " + i, 1990);
+        }
+        return jdbcTemplate.queryForList("select person_id from person order by person_id", Integer.class);
+    }
+
+    private Map<String, Object> loanOf(int bookId) {
+        return jdbcTemplate.queryForMap("select person_id, version from book where book_id = ?", bookId);
+    }
+
+    private static BatchResult.Outcome outcomeOf(BatchResult result, int bookId) {
+        return result.getItems().stream()
+                .filter(item -> item.getBookId() == bookId)
+                .findFirst()
+                .orElseThrow()
+                .getOutcome();
+    }
+
+    private interface ThreadTask<T> {
+        T run(int thread) throws Exception;
+    }
+}